@@ -0,0 +1,84 @@
+package org.kornicameister.crypto.benchmarks;
+
+import org.kornicameister.crypto.schnorr.SAlgorithmPQA;
+import org.kornicameister.crypto.schnorr.SComplexity;
+import org.kornicameister.crypto.schnorr.exception.PQAGenerationException;
+import org.kornicameister.crypto.sqlite.SQLiteController;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+
+/**
+ * Fixtures shared by the benchmarks. Everything is created in the temporary
+ * directory, so that benchmarks never touch the database of the application.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+final class BenchmarkSupport {
+    private static final long SEED = 0x5C4A0BBL;
+    private static final Map<SComplexity, SAlgorithmPQA> PQA = new EnumMap<>(SComplexity.class);
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * @return controller of the database in the temporary file
+     */
+    static SQLiteController controller() throws IOException, SQLException, ClassNotFoundException {
+        File database = File.createTempFile("jschnorr-benchmark", ".sqlite");
+        File properties = File.createTempFile("jschnorr-benchmark", ".properties");
+        database.deleteOnExit();
+        properties.deleteOnExit();
+
+        Properties settings = new Properties();
+        settings.setProperty("database", database.getAbsolutePath());
+        try (OutputStream stream = new FileOutputStream(properties)) {
+            settings.store(stream, "JSchnorr benchmarks");
+        }
+        return SQLiteController.getConnection(properties);
+    }
+
+    /**
+     * @return parameters of given complexity, generated once per JVM
+     */
+    static synchronized SAlgorithmPQA pqa(SComplexity complexity) throws PQAGenerationException {
+        SAlgorithmPQA pqa = PQA.get(complexity);
+        if (pqa == null) {
+            pqa = SAlgorithmPQA.generate(complexity);
+            PQA.put(complexity, pqa);
+        }
+        return pqa;
+    }
+
+    /**
+     * @return printable message of given length, same for every run
+     */
+    static String message(int size) {
+        Random random = new Random(SEED);
+        char[] chars = new char[size];
+        for (int i = 0; i < size; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return temporary file holding the message
+     */
+    static Path file(String message) throws IOException {
+        Path file = Files.createTempFile("jschnorr-benchmark", ".msg");
+        file.toFile().deleteOnExit();
+        Files.write(file, message.getBytes());
+        return file;
+    }
+}
@@ -0,0 +1,81 @@
+package org.kornicameister.crypto.benchmarks;
+
+import org.kornicameister.crypto.schnorr.SComplexity;
+import org.kornicameister.crypto.utils.MathUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modular exponentiation engines of {@link MathUtils} against {@link BigInteger#modPow(BigInteger, BigInteger)},
+ * for the moduli and exponents sized as in {@link SComplexity}.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MathUtilsBenchmark {
+    @Param({"S_320", "S_448", "S_512"})
+    private SComplexity complexity;
+
+    private BigInteger modulus;
+    private BigInteger base;
+    private BigInteger exponent;
+    private BigInteger otherBase;
+    private BigInteger otherExponent;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(this.complexity.ordinal());
+        this.modulus = new BigInteger(this.complexity.getPBitLength(), random).setBit(this.complexity.getPBitLength() - 1).setBit(0);
+        this.base = new BigInteger(this.complexity.getPBitLength() - 1, random);
+        this.exponent = new BigInteger(this.complexity.getQBitLength(), random);
+        this.otherBase = new BigInteger(this.complexity.getPBitLength() - 1, random);
+        this.otherExponent = new BigInteger(this.complexity.getQBitLength(), random);
+    }
+
+    @Benchmark
+    public BigInteger powModFast() {
+        return MathUtils.powModFast(this.base, this.exponent, this.modulus);
+    }
+
+    @Benchmark
+    public BigInteger powModMontgomery() {
+        return MathUtils.powMod(this.base, this.exponent, this.modulus, MathUtils.Method.MONTGOMERY);
+    }
+
+    @Benchmark
+    public BigInteger modPow() {
+        return this.base.modPow(this.exponent, this.modulus);
+    }
+
+    @Benchmark
+    public BigInteger powModDual() {
+        return MathUtils.powModDual(this.base, this.exponent, this.otherBase, this.otherExponent, this.modulus);
+    }
+
+    @Benchmark
+    public BigInteger modPowDual() {
+        return this.base.modPow(this.exponent, this.modulus)
+                .multiply(this.otherBase.modPow(this.otherExponent, this.modulus))
+                .mod(this.modulus);
+    }
+}
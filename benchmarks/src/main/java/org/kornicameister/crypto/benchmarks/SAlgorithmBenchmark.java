@@ -0,0 +1,94 @@
+package org.kornicameister.crypto.benchmarks;
+
+import org.kornicameister.crypto.schnorr.SAlgorithm;
+import org.kornicameister.crypto.schnorr.SComplexity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing, verifying and hashing of the messages held in memory and in files.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SAlgorithmBenchmark {
+    @Param({"S_320", "S_448", "S_512", "EC_P256"})
+    private SComplexity complexity;
+
+    @Param({"64", "65536", "16777216"})
+    private int messageSize;
+
+    private SAlgorithm algorithm;
+    private String message;
+    private Path file;
+    private Integer messageId;
+    private Integer fileId;
+    private BigInteger signParam;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.algorithm = new SAlgorithm(BenchmarkSupport.pqa(this.complexity), BenchmarkSupport.controller());
+        this.message = BenchmarkSupport.message(this.messageSize);
+        this.file = BenchmarkSupport.file(this.message);
+        this.messageId = this.algorithm.sign(this.message);
+        this.fileId = this.algorithm.sign(this.file);
+        this.signParam = new BigInteger(this.complexity.getPBitLength() - 1, new Random(this.messageSize));
+    }
+
+    @Benchmark
+    public Integer signString() throws Exception {
+        return this.algorithm.sign(this.message);
+    }
+
+    @Benchmark
+    public boolean verifyString() throws Exception {
+        return this.algorithm.verify(this.message, this.messageId);
+    }
+
+    @Benchmark
+    public Integer signFile() throws Exception {
+        return this.algorithm.sign(this.file);
+    }
+
+    @Benchmark
+    public boolean verifyFile() throws Exception {
+        return this.algorithm.verify(this.file, this.fileId);
+    }
+
+    @Benchmark
+    public BigInteger hashCodeString() throws Exception {
+        return this.algorithm.hashCode(this.message, this.signParam);
+    }
+
+    @Benchmark
+    public BigInteger hashCodeFile() throws Exception {
+        try (FileInputStream stream = new FileInputStream(this.file.toFile())) {
+            return this.algorithm.hashCode(stream, this.signParam);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.kornicameister.crypto.benchmarks;
+
+import org.kornicameister.crypto.schnorr.SAlgorithmPQA;
+import org.kornicameister.crypto.schnorr.SComplexity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation of p, q and a. Time of single generation varies a lot,
+ * hence it is measured as many single shots.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 20)
+@Fork(1)
+public class SAlgorithmPQABenchmark {
+    @Param({"S_320", "S_448", "S_512"})
+    private SComplexity complexity;
+
+    @Benchmark
+    public SAlgorithmPQA generate() throws Exception {
+        return SAlgorithmPQA.generate(this.complexity);
+    }
+}
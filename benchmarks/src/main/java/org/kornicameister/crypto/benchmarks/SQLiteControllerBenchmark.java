@@ -0,0 +1,84 @@
+package org.kornicameister.crypto.benchmarks;
+
+import org.kornicameister.crypto.schnorr.SComplexity;
+import org.kornicameister.crypto.schnorr.SchnorrCryptoKey;
+import org.kornicameister.crypto.schnorr.SchnorrKeyPair;
+import org.kornicameister.crypto.schnorr.SchnorrKeyRegistry;
+import org.kornicameister.crypto.sqlite.SQLiteController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persisting and loading of the signatures, sized as in {@link SComplexity}.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SQLiteControllerBenchmark {
+    private static final int BATCH_SIZE = 1000;
+
+    @Param({"S_320", "S_448", "S_512"})
+    private SComplexity complexity;
+
+    private SQLiteController controller;
+    private SchnorrCryptoKey cryptoKey;
+    private Integer cryptoKeyId;
+    private List<SchnorrCryptoKey> cryptoKeys;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Random random = new Random(this.complexity.ordinal());
+        this.controller = BenchmarkSupport.controller();
+
+        SchnorrKeyPair keyPair = new SchnorrKeyPair(
+                new BigInteger(this.complexity.getPBitLength(), random),
+                new BigInteger(this.complexity.getQBitLength(), random)
+        );
+        this.cryptoKey = new SchnorrCryptoKey();
+        this.cryptoKey.setSignerId(new SchnorrKeyRegistry(this.controller).addKeyPair(keyPair));
+        this.cryptoKey.setCryptoEPart(new BigInteger(512, random));
+        this.cryptoKey.setCryptoYPart(new BigInteger(this.complexity.getQBitLength(), random));
+        this.cryptoKeyId = this.controller.saveObject(this.cryptoKey);
+        this.cryptoKeys = Collections.nCopies(BATCH_SIZE, this.cryptoKey);
+    }
+
+    @Benchmark
+    public Integer saveObject() throws Exception {
+        return this.controller.saveObject(this.cryptoKey);
+    }
+
+    @Benchmark
+    public Object getObject() throws Exception {
+        return this.controller.getObject(this.cryptoKeyId, SchnorrCryptoKey.class);
+    }
+
+    /**
+     * Saves {@value #BATCH_SIZE} objects in single transaction.
+     */
+    @Benchmark
+    public List<Integer> saveObjects() throws Exception {
+        return this.controller.saveObjects(this.cryptoKeys);
+    }
+}
@@ -0,0 +1,223 @@
+package org.kornicameister.crypto.schnorr;
+
+import org.apache.log4j.Logger;
+import org.kornicameister.crypto.schnorr.nonce.DrbgNonceSource;
+import org.kornicameister.crypto.schnorr.nonce.NonceSource;
+import org.kornicameister.crypto.utils.FixedBasePower;
+import org.kornicameister.crypto.utils.Pair;
+
+import java.math.BigInteger;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of precomputed signing commitments, that is pairs of
+ * <verb>(kSignParam, rSignParam = a^kSignParam mod p)</verb>, which is
+ * the only input-independent (and most expensive) part of {@link SAlgorithm#sign(String)}.
+ * <p/>
+ * Pool is filled by background threads up to the <b>high watermark</b>. Then
+ * they sleep until pool drains down to the <b>low watermark</b>. Taking from the pool
+ * is lock-free and every commitment is handed out exactly once. If pool
+ * runs empty, {@link CommitmentPool#take()} returns null and the fact is counted,
+ * see {@link CommitmentPool#getEmptyCount()}.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class CommitmentPool {
+    private final static Logger LOGGER = Logger.getLogger(CommitmentPool.class);
+    private static final long MAX_SLEEP_MS = 1000;
+    private final FixedBasePower table;
+    private final int kBitLength;
+    private final NonceSource nonceSource;
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final Queue<Pair<BigInteger, BigInteger>> commitments;
+    private final AtomicInteger size;
+    private final AtomicInteger sleeping;
+    private final AtomicLong takenCount;
+    private final AtomicLong emptyCount;
+    private final Object refillMonitor;
+    private final ExecutorService refillers;
+    private volatile boolean running;
+
+    /**
+     * Creates and starts the pool.
+     *
+     * @param table         powers of a, i.e. {@link org.kornicameister.crypto.utils.FixedBaseTable}
+     * @param kBitLength    bit length of the generated kSignParam
+     * @param lowWatermark  size below which refill threads wake up
+     * @param highWatermark size up to which refill threads fill the pool
+     * @param threads       amount of refill threads
+     */
+    public CommitmentPool(FixedBasePower table, int kBitLength, int lowWatermark, int highWatermark, int threads) {
+        this(table, kBitLength, lowWatermark, highWatermark, threads, new DrbgNonceSource());
+    }
+
+    /**
+     * Creates and starts the pool drawing kSignParam from the given source.
+     *
+     * @param table         powers of a, i.e. {@link org.kornicameister.crypto.utils.FixedBaseTable}
+     * @param kBitLength    bit length of the generated kSignParam
+     * @param lowWatermark  size below which refill threads wake up
+     * @param highWatermark size up to which refill threads fill the pool
+     * @param threads       amount of refill threads
+     * @param nonceSource   random source, must not be deterministic
+     */
+    public CommitmentPool(FixedBasePower table, int kBitLength, int lowWatermark, int highWatermark, int threads,
+                          NonceSource nonceSource) {
+        if (nonceSource.isDeterministic()) {
+            throw new IllegalArgumentException(String.format("%s can not compute nonces in advance", nonceSource));
+        }
+        if (lowWatermark < 0 || highWatermark <= lowWatermark || threads < 1) {
+            throw new IllegalArgumentException(String.format("Invalid pool settings, low=%d, high=%d, threads=%d",
+                    lowWatermark, highWatermark, threads));
+        }
+        this.table = table;
+        this.kBitLength = kBitLength;
+        this.nonceSource = nonceSource;
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        this.commitments = new ConcurrentLinkedQueue<>();
+        this.size = new AtomicInteger();
+        this.sleeping = new AtomicInteger();
+        this.takenCount = new AtomicLong();
+        this.emptyCount = new AtomicLong();
+        this.refillMonitor = new Object();
+        this.running = true;
+        this.refillers = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger counter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "commitment-pool-" + this.counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        for (int i = 0; i < threads; i++) {
+            this.refillers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    refill();
+                }
+            });
+        }
+
+        LOGGER.info(String.format("Started %s", this));
+    }
+
+    /**
+     * Takes commitment out of the pool.
+     *
+     * @return pair of kSignParam and rSignParam or null if pool is empty
+     */
+    public Pair<BigInteger, BigInteger> take() {
+        Pair<BigInteger, BigInteger> commitment = this.commitments.poll();
+        if (commitment == null) {
+            this.emptyCount.incrementAndGet();
+            this.wakeRefillers();
+            return null;
+        }
+        if (this.size.decrementAndGet() <= this.lowWatermark) {
+            this.wakeRefillers();
+        }
+        this.takenCount.incrementAndGet();
+        return commitment;
+    }
+
+    /**
+     * Stops refill threads, commitments left in the pool are dropped.
+     */
+    public void close() {
+        this.running = false;
+        synchronized (this.refillMonitor) {
+            this.refillMonitor.notifyAll();
+        }
+        this.refillers.shutdownNow();
+        this.commitments.clear();
+        this.size.set(0);
+        LOGGER.info(String.format("Closed %s", this));
+    }
+
+    private void wakeRefillers() {
+        if (this.sleeping.get() > 0) {
+            synchronized (this.refillMonitor) {
+                this.refillMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void refill() {
+        try {
+            while (this.running) {
+                if (this.size.get() >= this.highWatermark) {
+                    synchronized (this.refillMonitor) {
+                        this.sleeping.incrementAndGet();
+                        try {
+                            while (this.running && this.size.get() > this.lowWatermark) {
+                                this.refillMonitor.wait(MAX_SLEEP_MS);
+                            }
+                        } finally {
+                            this.sleeping.decrementAndGet();
+                        }
+                    }
+                    continue;
+                }
+                BigInteger k = this.nonceSource.nextRandom(this.kBitLength);
+                this.commitments.offer(new Pair<>(k, this.table.pow(k)));
+                this.size.incrementAndGet();
+            }
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int size() {
+        return this.size.get();
+    }
+
+    public int getLowWatermark() {
+        return lowWatermark;
+    }
+
+    public int getHighWatermark() {
+        return highWatermark;
+    }
+
+    /**
+     * @return amount of commitments taken from the pool
+     */
+    public long getTakenCount() {
+        return this.takenCount.get();
+    }
+
+    /**
+     * @return amount of times the pool was found empty
+     */
+    public long getEmptyCount() {
+        return this.emptyCount.get();
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("CommitmentPool{");
+        sb.append("size=").append(size.get());
+        sb.append(", lowWatermark=").append(lowWatermark);
+        sb.append(", highWatermark=").append(highWatermark);
+        sb.append(", taken=").append(takenCount.get());
+        sb.append(", empty=").append(emptyCount.get());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,245 @@
+package org.kornicameister.crypto.schnorr;
+
+import org.apache.log4j.Logger;
+import org.kornicameister.crypto.schnorr.exception.PQAValidationException;
+import org.kornicameister.crypto.utils.EllipticCurve;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks loaded parameters [p,q,a] before they are used:
+ * <ul>
+ * <li>p and q are prime on {@value #CERTAINTY} certainty</li>
+ * <li><verb>(p - 1) mod q = 0</verb></li>
+ * <li><verb>1 < a < p</verb> and <verb>a^q = 1 mod p</verb>, that is a generates the subgroup of order q,
+ * or, for elliptic curve, a is the point of the curve and <verb>q * a</verb> is infinity</li>
+ * <li>q is as long as {@link SComplexity} says and p is at most that long,
+ * shorter by less than {@value #MAX_P_SHORTFALL} bits, as {@link SAlgorithmPQA#generate(SComplexity)} makes them</li>
+ * </ul>
+ * Checks run simultaneously on the pool of given size, primality of p being the longest of them.
+ * <p/>
+ * Parameters that passed are remembered by their fingerprint, SHA-256 of the complexity and [p,q,a].
+ * Fingerprints are appended to the cache file, if there is one, so that later starts
+ * skip validating the parameters that did not change.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class PQAValidator {
+    private final static Logger LOGGER = Logger.getLogger(PQAValidator.class);
+    private static final int CERTAINTY = 64;
+    private static final int MAX_P_SHORTFALL = 64;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private final Path cacheFile;
+    private final int threads;
+    private final Set<String> validated;
+
+    /**
+     * Validator using as many threads as there are available processors.
+     *
+     * @param cacheFile file fingerprints of valid parameters are kept in, null to keep them in memory only
+     * @throws IOException if cache file could not be read
+     */
+    public PQAValidator(Path cacheFile) throws IOException {
+        this(cacheFile, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param cacheFile file fingerprints of valid parameters are kept in, null to keep them in memory only
+     * @param threads   amount of threads the checks run on
+     * @throws IOException if cache file could not be read
+     */
+    public PQAValidator(Path cacheFile, int threads) throws IOException {
+        this.cacheFile = cacheFile;
+        this.threads = Math.max(1, threads);
+        this.validated = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        if (cacheFile != null && Files.exists(cacheFile)) {
+            for (String line : Files.readAllLines(cacheFile, StandardCharsets.US_ASCII)) {
+                if (!line.trim().isEmpty()) {
+                    this.validated.add(line.trim());
+                }
+            }
+        }
+    }
+
+    /**
+     * Validates the parameters unless they were validated before.
+     *
+     * @param pqa parameters
+     * @return true if parameters were checked, false if they were found in the cache
+     * @throws PQAValidationException if any of the checks failed
+     */
+    public boolean validate(SAlgorithmPQA pqa) throws PQAValidationException {
+        String fingerprint = fingerprint(pqa);
+        if (this.validated.contains(fingerprint)) {
+            LOGGER.info(String.format("Parameters %s validated before, skipping", fingerprint));
+            return false;
+        }
+
+        long time = System.nanoTime();
+        List<String> failures = this.check(pqa);
+        if (!failures.isEmpty()) {
+            throw new PQAValidationException(String.format("Invalid parameters %s, failed=%s", fingerprint, failures));
+        }
+        if (this.validated.add(fingerprint) && this.cacheFile != null) {
+            this.remember(fingerprint);
+        }
+
+        LOGGER.info(String.format("Validated parameters %s, took=%dms, threads=%d",
+                fingerprint,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - time),
+                this.threads)
+        );
+        return true;
+    }
+
+    public boolean isValidated(SAlgorithmPQA pqa) {
+        return this.validated.contains(fingerprint(pqa));
+    }
+
+    private List<String> check(SAlgorithmPQA pqa) {
+        final BigInteger p = pqa.getP();
+        final BigInteger q = pqa.getQ();
+        final BigInteger a = pqa.getA();
+        final SComplexity complexity = pqa.getComplexity();
+        if (p == null || q == null || a == null) {
+            return Collections.singletonList("missing");
+        }
+
+        List<String> names = new ArrayList<>();
+        List<Callable<Boolean>> checks = new ArrayList<>();
+        names.add("p is prime");
+        checks.add(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return p.isProbablePrime(CERTAINTY);
+            }
+        });
+        names.add("q is prime");
+        checks.add(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return q.isProbablePrime(CERTAINTY);
+            }
+        });
+        names.add("a generates subgroup of order q");
+        checks.add(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                if (complexity.isEllipticCurve()) {
+                    return isCurveGenerator(complexity, p, q, a);
+                }
+                return p.subtract(BigInteger.ONE).mod(q).signum() == 0
+                        && a.compareTo(BigInteger.ONE) > 0
+                        && a.compareTo(p) < 0
+                        && a.modPow(q, p).equals(BigInteger.ONE);
+            }
+        });
+        names.add("bit lengths match " + complexity);
+        checks.add(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                return q.bitLength() == complexity.getQBitLength()
+                        && p.bitLength() <= complexity.getPBitLength()
+                        && p.bitLength() > complexity.getPBitLength() - MAX_P_SHORTFALL;
+            }
+        });
+
+        List<String> failures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.threads, checks.size()));
+        try {
+            List<Future<Boolean>> results = executor.invokeAll(checks);
+            for (int i = 0; i < results.size(); i++) {
+                if (!results.get(i).get()) {
+                    failures.add(names.get(i));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PQAValidationException("Interrupted while validating parameters", e);
+        } catch (ExecutionException e) {
+            throw new PQAValidationException("Failed to validate parameters", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return failures;
+    }
+
+    private static boolean isCurveGenerator(SComplexity complexity, BigInteger p, BigInteger q, BigInteger a) {
+        EllipticCurve curve = SAlgorithmPQA.curve(complexity);
+        if (curve == null || !curve.getP().equals(p) || !curve.getN().equals(q)) {
+            return false;
+        }
+        try {
+            EllipticCurve.Point generator = curve.decode(a);
+            return !curve.isInfinity(generator) && curve.isInfinity(curve.multiply(generator, q));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private synchronized void remember(String fingerprint) {
+        try {
+            Files.write(this.cacheFile, Collections.singletonList(fingerprint), StandardCharsets.US_ASCII,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            LOGGER.warn(String.format("Failed to remember parameters %s in %s", fingerprint, this.cacheFile), e);
+        }
+    }
+
+    /**
+     * @param pqa parameters
+     * @return hex encoded SHA-256 of the complexity and [p,q,a]
+     */
+    public static String fingerprint(SAlgorithmPQA pqa) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(pqa.getComplexity().name().getBytes(StandardCharsets.US_ASCII));
+            for (BigInteger number : new BigInteger[]{pqa.getP(), pqa.getQ(), pqa.getA()}) {
+                byte[] bytes = number == null ? new byte[0] : number.toByteArray();
+                digest.update(new byte[]{
+                        (byte) (bytes.length >>> 24), (byte) (bytes.length >>> 16),
+                        (byte) (bytes.length >>> 8), (byte) bytes.length
+                });
+                digest.update(bytes);
+            }
+            byte[] hash = digest.digest();
+            char[] hex = new char[hash.length * 2];
+            for (int i = 0; i < hash.length; i++) {
+                hex[2 * i] = HEX[(hash[i] >>> 4) & 0xf];
+                hex[2 * i + 1] = HEX[hash[i] & 0xf];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PQAValidator{");
+        sb.append("cacheFile=").append(cacheFile);
+        sb.append(", threads=").append(threads);
+        sb.append(", validated=").append(validated.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
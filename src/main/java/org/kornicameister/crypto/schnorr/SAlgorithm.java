@@ -1,19 +1,37 @@
 package org.kornicameister.crypto.schnorr;
 
 import org.apache.log4j.Logger;
+import org.kornicameister.crypto.schnorr.group.SchnorrGroup;
+import org.kornicameister.crypto.schnorr.nonce.DrbgNonceSource;
+import org.kornicameister.crypto.schnorr.nonce.NonceSource;
+import org.kornicameister.crypto.schnorr.store.CachingKeyStore;
+import org.kornicameister.crypto.schnorr.store.MappedLogKeyStore;
+import org.kornicameister.crypto.schnorr.store.SQLiteKeyStore;
+import org.kornicameister.crypto.schnorr.store.SchnorrKeyStore;
 import org.kornicameister.crypto.sqlite.SQLiteController;
-import org.kornicameister.crypto.utils.MathUtils;
+import org.kornicameister.crypto.sqlite.WriteBehindWriter;
+import org.kornicameister.crypto.utils.DigestUtils;
+import org.kornicameister.crypto.utils.FixedBaseCache;
+import org.kornicameister.crypto.utils.FixedBasePower;
+import org.kornicameister.crypto.utils.FixedBaseTable;
+import org.kornicameister.crypto.utils.MontgomeryContext;
+import org.kornicameister.crypto.utils.Pair;
 
-import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.sql.SQLException;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Class handling actual tasks that Schnorr should provide.
@@ -21,14 +39,17 @@ import java.util.Random;
  * Its working is based on {@link SAlgorithmPQA} class that
  * holds algorithm's parameters. To work properly this class requires
  * working {@link SQLiteController}, by which it can save and retrieve
- * {@link SchnorrCryptoKey} objects.
+ * {@link SchnorrCryptoKey} objects. Signatures may be kept elsewhere,
+ * see {@link SchnorrKeyStore}.
  * </br>
  * <h2>About keys and functionality [private,public]</h2>
  * <h3>Keys</h3>
  * <ol>
  * <li>Private key - Is randomly chosen number less than q</li>
- * <li>Public key - Is computed from this equation: <pre>pub_key = (a ^ priv_key) mod p</pre></li>
+ * <li>Public key - Is computed from this equation: <pre>pub_key = (a ^ -priv_key) mod p</pre></li>
  * </ol>
+ * Keys are generated once per signer, see {@link SchnorrKeyPair}, and kept
+ * in {@link SchnorrKeyRegistry}. Messages are signed with {@link SAlgorithm#getSigner()}.
  * <h3>Signing</h3>
  * <ol>
  * <li>Generating randomly chosen kSingParam smaller than q</li>
@@ -47,6 +68,28 @@ import java.util.Random;
  * <li>Computing hash code again using provided input and computed x'</li>
  * <li>compares eSignParam' with persisted eSingParam from cryptoKey used in signing</li>
  * </ol>
+ * Private keys and kSignParam come from {@link NonceSource}, random per thread by default,
+ * or derived from the private key and the message, see {@link SAlgorithm#setNonceSource(NonceSource)}.
+ * Signing takes powers of <b>a</b> from {@link SAlgorithmPQA#getFixedBaseTable()},
+ * verifying computes both powers at once with {@link MontgomeryContext#powDual}.
+ * Public keys verified repeatedly get their own tables in {@link FixedBaseCache}.
+ * <h3>Groups</h3>
+ * Powers above are taken in {@link SAlgorithmPQA#getGroup()}, the subgroup modulo p
+ * or, for {@link SComplexity#EC_P256}, the group of points of the elliptic curve,
+ * where <verb>a^k</verb> stands for <verb>k * G</verb>. Signatures, keys and their persistence
+ * do not differ between the groups, as commitments and public keys are encoded as numbers,
+ * see {@link SchnorrGroup}. {@link FixedBaseCache} and batch tables are used modulo p only,
+ * elliptic curve group keeps tables of the public keys on its own.
+ * <h3>Concurrency</h3>
+ * Instances are safe for concurrent use by many threads. Digests and random
+ * generators are kept per thread, precomputed tables are immutable and
+ * caches do not lock on lookups. The only serialized part is saving signatures,
+ * as {@link SQLiteController} has single writer connection. Signatures are
+ * loaded through its pool of readers.
+ * <p/>
+ * With {@link SAlgorithm#enableWriteBehind(int, int, int)} saving leaves the signing
+ * path altogether, signatures are written in batches by the background thread
+ * and become durable after {@link SAlgorithm#flush()}.
  *
  * @author kornicameister
  * @since 0.0.1
@@ -54,35 +97,84 @@ import java.util.Random;
 public class SAlgorithm {
     private final static Logger LOGGER = Logger.getLogger(SAlgorithm.class);
     private static final String SHA_512 = "SHA-512";
+    private static final int BATCH_TABLE_THRESHOLD = 8;
+    private static final int BATCH_TABLE_WINDOW = 4;
+    private static final ThreadLocal<MessageDigest> SHA_512_DIGEST = new ThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance(SHA_512);
+            } catch (NoSuchAlgorithmException e) {
+                LOGGER.fatal(String.format("%s is not available", SHA_512), e);
+                return null;
+            }
+        }
+    };
     private final SAlgorithmPQA pqa;
-    private final Random seed;
+    private final SchnorrGroup group;
     private final SQLiteController controller;
-    private int keyLength;
+    private final SchnorrKeyStore keyStore;
+    private final int keyLength;
+    private final SchnorrKeyRegistry keyRegistry;
+    private volatile SchnorrKeyPair signer;
+    private volatile FixedBaseCache publicKeyCache;
+    private volatile CommitmentPool commitmentPool;
+    private volatile WriteBehindWriter writeBehind;
+    private volatile NonceSource nonceSource;
 
     /**
      * Constructs new SAlgorithm.
+     * Signatures are kept in the database, recently signed and verified ones
+     * are cached in {@link CachingKeyStore}.
      *
      * @param sAlgorithmPQA placeholder for entry points for algorithm
      * @param controller    database bridge
+     * @throws SQLException if signatures of the legacy table could not be migrated
      */
-    public SAlgorithm(SAlgorithmPQA sAlgorithmPQA, SQLiteController controller) {
+    public SAlgorithm(SAlgorithmPQA sAlgorithmPQA, SQLiteController controller) throws SQLException {
+        this(sAlgorithmPQA, controller,
+                new CachingKeyStore(new SQLiteKeyStore(controller), CachingKeyStore.DEFAULT_CAPACITY));
+    }
+
+    /**
+     * Constructs new SAlgorithm keeping signatures in the given store,
+     * for instance in {@link MappedLogKeyStore}. Key pairs of the signers
+     * are still kept in the database.
+     *
+     * @param sAlgorithmPQA placeholder for entry points for algorithm
+     * @param controller    database bridge
+     * @param keyStore      storage of the signatures
+     */
+    public SAlgorithm(SAlgorithmPQA sAlgorithmPQA, SQLiteController controller, SchnorrKeyStore keyStore) {
         this.pqa = sAlgorithmPQA;
-        this.keyLength = 0;
+        this.group = this.pqa.getGroup();
+        this.keyLength = keyLength(this.pqa.getComplexity());
         this.controller = controller;
+        this.keyStore = keyStore;
+        this.nonceSource = new DrbgNonceSource();
+        this.keyRegistry = new SchnorrKeyRegistry(controller);
+        if (!this.pqa.getComplexity().isEllipticCurve()) {
+            this.publicKeyCache = new FixedBaseCache(
+                    this.pqa.getMontgomeryContext(),
+                    this.pqa.getQ().bitLength(),
+                    this.pqa.getComplexity().getFixedBaseWindow(),
+                    FixedBaseCache.DEFAULT_MEMORY_CAP,
+                    FixedBaseCache.DEFAULT_HOT_THRESHOLD
+            );
+        }
+    }
 
-        switch (this.pqa.getComplexity()) {
+    private static int keyLength(SComplexity complexity) {
+        switch (complexity) {
             case S_320:
-                this.keyLength = 160;
-                break;
+                return 160;
             case S_448:
-                this.keyLength = 224;
-                break;
+                return 224;
             case S_512:
-                this.keyLength = 256;
-                break;
+            case EC_P256:
+                return 256;
         }
-
-        this.seed = new SecureRandom();
+        return 0;
     }
 
     /**
@@ -102,32 +194,66 @@ public class SAlgorithm {
      * @see SchnorrCryptoKey
      */
     public Integer sign(final String message) throws NoSuchAlgorithmException {
-        SchnorrCryptoKey cryptoKey = new SchnorrCryptoKey();
-        BigInteger privKey, pubKey;
-        BigInteger rSignParam, ySignParam, eSingParam, kSignParam;
+        try {
+            return this.sign(new StringMessage(message));
+        } catch (IOException e) {
+            LOGGER.fatal("Failed to read the message", e);
+        }
+        return null;
+    }
 
-        // keys
-        privKey = new BigInteger(this.keyLength - 1, this.seed);
-        pubKey = this.pqa.getA().modPow(privKey.negate(), this.pqa.getP());
+    /**
+     * @see SAlgorithm#sign(String)
+     */
+    public Integer sign(FileInputStream message) throws IOException, NoSuchAlgorithmException {
+        return this.sign(new ChannelMessage(message.getChannel()));
+    }
 
-        // signing
-        kSignParam = new BigInteger(this.keyLength - 1, this.seed);
-        rSignParam = MathUtils.powModFast(this.pqa.getA(), kSignParam, this.pqa.getP());    // x = a^r mod p
+    /**
+     * Signs the file available under given path. File is read with {@link DigestUtils},
+     * hence large files are memory-mapped.
+     *
+     * @see SAlgorithm#sign(String)
+     */
+    public Integer sign(Path message) throws IOException, NoSuchAlgorithmException {
+        try (FileChannel channel = FileChannel.open(message, StandardOpenOption.READ)) {
+            return this.sign(new ChannelMessage(channel));
+        }
+    }
 
-        // signature
-        eSingParam = this.hashCode(message, rSignParam);                                    // H(M, e)
-        ySignParam = kSignParam.add(privKey.multiply(eSingParam)).mod(this.pqa.getQ());     // y = (r + s*e) mod q
+    /**
+     * Signs the content of the channel, from its current position up to its end.
+     *
+     * @see SAlgorithm#sign(String)
+     */
+    public Integer sign(FileChannel message) throws IOException, NoSuchAlgorithmException {
+        return this.sign(new ChannelMessage(message));
+    }
 
-        // saving
-        cryptoKey.setPrivateKey(privKey);
-        cryptoKey.setPublicKey(pubKey);
-        cryptoKey.setCryptoEPart(eSingParam);
-        cryptoKey.setCryptoYPart(ySignParam);
+    /**
+     * Signs remaining bytes of the buffer, buffer's position is not changed.
+     *
+     * @see SAlgorithm#sign(String)
+     */
+    public Integer sign(ByteBuffer message) throws NoSuchAlgorithmException {
+        try {
+            return this.sign(new BufferMessage(message));
+        } catch (IOException e) {
+            LOGGER.fatal("Failed to read the message", e);
+        }
+        return null;
+    }
 
-        LOGGER.info(String.format("Successfully encrypted message %s with key %s", message, cryptoKey));
+    private Integer sign(Message message) throws IOException, NoSuchAlgorithmException {
+        SchnorrKeyPair keyPair = this.getSigner();
+        if (keyPair == null) {
+            return null;
+        }
+        SchnorrCryptoKey cryptoKey = this.signature(message, keyPair);
 
         try {
-            return SchnorrCryptoKey.addSchnorrKey(cryptoKey, this.controller);
+            WriteBehindWriter writer = this.writeBehind;
+            return writer != null ? writer.save(cryptoKey) : this.keyStore.addSchnorrKey(cryptoKey);
         } catch (Exception e1) {
             LOGGER.fatal("Failed to save crypto key", e1);
         }
@@ -135,41 +261,157 @@ public class SAlgorithm {
     }
 
     /**
+     * Signs all messages with the same signer. Signatures are computed first and
+     * then persisted with single, batched transaction, so the cost of the commit
+     * is paid once for the whole input.
+     *
+     * @param messages messages to sign
+     * @return ids of the records, in order of the messages, or null if signatures could not be saved
      * @see SAlgorithm#sign(String)
      */
-    public Integer sign(FileInputStream message) throws IOException, NoSuchAlgorithmException {
-        SchnorrCryptoKey cryptoKey = new SchnorrCryptoKey();
-        BigInteger privKey, pubKey;
-        BigInteger rSignParam, ySignParam, eSingParam, kSignParam;
+    public List<Integer> signAll(List<String> messages) throws NoSuchAlgorithmException {
+        return this.signAll(messages.iterator());
+    }
 
-        // keys
-        privKey = new BigInteger(this.keyLength - 1, this.seed);
-        pubKey = this.pqa.getA().modPow(privKey.negate(), this.pqa.getP());
+    /**
+     * @see SAlgorithm#signAll(List)
+     */
+    public List<Integer> signAll(Iterator<String> messages) throws NoSuchAlgorithmException {
+        SchnorrKeyPair keyPair = this.getSigner();
+        if (keyPair == null) {
+            return null;
+        }
+        List<SchnorrCryptoKey> cryptoKeys = new ArrayList<>();
+        try {
+            while (messages.hasNext()) {
+                cryptoKeys.add(this.signature(new StringMessage(messages.next()), keyPair));
+            }
+        } catch (IOException e) {
+            LOGGER.fatal("Failed to read the message", e);
+            return null;
+        }
 
-        // signing
-        kSignParam = new BigInteger(this.keyLength - 1, this.seed);
-        rSignParam = MathUtils.powModFast(this.pqa.getA(), kSignParam, this.pqa.getP());    // x = a^r mod p
+        try {
+            WriteBehindWriter writer = this.writeBehind;
+            if (writer == null) {
+                return this.keyStore.addSchnorrKeys(cryptoKeys);
+            }
+            List<Integer> ids = new ArrayList<>(cryptoKeys.size());
+            for (SchnorrCryptoKey cryptoKey : cryptoKeys) {
+                ids.add(writer.save(cryptoKey));
+            }
+            return ids;
+        } catch (SQLException e) {
+            LOGGER.fatal(String.format("Failed to save %d crypto keys", cryptoKeys.size()), e);
+        }
+        return null;
+    }
 
-        // signature
-        eSingParam = this.hashCode(message, rSignParam);                                    // H(M, e)
-        ySignParam = kSignParam.add(privKey.multiply(eSingParam)).mod(this.pqa.getQ());     // y = (r + s*e) mod q
+    private SchnorrCryptoKey signature(Message message, SchnorrKeyPair keyPair) throws IOException, NoSuchAlgorithmException {
+        SchnorrCryptoKey cryptoKey = new SchnorrCryptoKey();
+        BigInteger rSignParam, ySignParam, eSingParam, kSignParam;
+        FixedBasePower table = this.group.getGenerator();
+        NonceSource nonceSource = this.nonceSource;
+
+        if (nonceSource.isDeterministic()) {
+            // message is digested once, nonce is derived from H(M) and H(M, x) continues from the same state
+            MessageDigest sha512 = sha512();
+            message.update(sha512);
+            kSignParam = nonceSource.nextNonce(this.keyLength - 1, this.pqa.getQ(),
+                    keyPair.getPrivateKey(), cloneDigest(sha512).digest());
+            rSignParam = table.pow(kSignParam);                                             // x = a^r mod p
+
+            sha512.update(rSignParam.toByteArray());
+            eSingParam = new BigInteger(1, sha512.digest());                                // H(M, e)
+        } else {
+            Pair<BigInteger, BigInteger> commitment = this.nextCommitment(table, nonceSource);
+            kSignParam = commitment.getFirst();
+            rSignParam = commitment.getSecond();                                            // x = a^r mod p
+
+            eSingParam = this.hashCode(message, rSignParam);                                // H(M, e)
+        }
+        ySignParam = kSignParam.add(keyPair.getPrivateKey().multiply(eSingParam))
+                .mod(this.pqa.getQ());                                                      // y = (r + s*e) mod q
 
         // saving
-        cryptoKey.setPrivateKey(privKey);
-        cryptoKey.setPublicKey(pubKey);
+        cryptoKey.setSignerId(keyPair.getPrimaryKey());
         cryptoKey.setCryptoEPart(eSingParam);
         cryptoKey.setCryptoYPart(ySignParam);
 
-        LOGGER.info(String.format("Successfully encrypted message %s with key %s", message, cryptoKey));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug(String.format("Successfully encrypted message %s with key %s", message, cryptoKey));
+        }
+        return cryptoKey;
+    }
+
+    /**
+     * Generates new key pair and registers it in {@link SchnorrKeyRegistry}.
+     * Public key is <verb>v = a^-s = a^(q-s) mod p</verb>.
+     *
+     * @return persisted key pair or null if it could not be saved
+     */
+    public SchnorrKeyPair generateKeyPair() {
+        BigInteger privKey = this.nonceSource.nextRandom(this.keyLength - 1);
+        BigInteger pubKey = this.group.publicKey(privKey);
+        SchnorrKeyPair keyPair = new SchnorrKeyPair(pubKey, privKey);
 
         try {
-            return SchnorrCryptoKey.addSchnorrKey(cryptoKey, this.controller);
-        } catch (Exception e1) {
-            LOGGER.fatal("Failed to save crypto key", e1);
+            this.keyRegistry.addKeyPair(keyPair);
+            LOGGER.info(String.format("Generated signer %s", keyPair));
+            return keyPair;
+        } catch (SQLException e) {
+            LOGGER.fatal("Failed to save key pair", e);
         }
         return null;
     }
 
+    /**
+     * Returns the key pair messages are signed with. If none was set,
+     * new one is generated on first use and kept for the following signatures.
+     *
+     * @return signer's key pair or null if it could not be generated
+     */
+    public SchnorrKeyPair getSigner() {
+        SchnorrKeyPair keyPair = this.signer;
+        if (keyPair == null) {
+            synchronized (this) {
+                if ((keyPair = this.signer) == null) {
+                    this.signer = keyPair = this.generateKeyPair();
+                }
+            }
+        }
+        return keyPair;
+    }
+
+    /**
+     * @param signer persisted key pair following signatures are made with
+     */
+    public void setSigner(SchnorrKeyPair signer) {
+        this.signer = signer;
+    }
+
+    public SchnorrKeyRegistry getKeyRegistry() {
+        return keyRegistry;
+    }
+
+    public SchnorrKeyStore getKeyStore() {
+        return keyStore;
+    }
+
+    /**
+     * Returns the pair of kSignParam and rSignParam, taken from {@link CommitmentPool}
+     * if it is enabled and not empty, computed in place otherwise.
+     */
+    private Pair<BigInteger, BigInteger> nextCommitment(FixedBasePower table, NonceSource nonceSource) {
+        CommitmentPool pool = this.commitmentPool;
+        Pair<BigInteger, BigInteger> commitment = pool != null ? pool.take() : null;
+        if (commitment == null) {
+            BigInteger kSignParam = nonceSource.nextRandom(this.keyLength - 1);
+            commitment = new Pair<>(kSignParam, table.pow(kSignParam));
+        }
+        return commitment;
+    }
+
     /**
      * Method validating inputted message against {@link SchnorrCryptoKey} retrieved by provided recordId
      *
@@ -180,55 +422,237 @@ public class SAlgorithm {
      */
     public boolean verify(String message, Integer recordId) throws NoSuchAlgorithmException {
         try {
-            BigInteger x1, e1, tmp;
-            SchnorrCryptoKey cryptoKey = SchnorrCryptoKey.getSchnorrKey(recordId, this.controller);
+            return this.verify(new StringMessage(message), recordId);
+        } catch (IOException e) {
+            LOGGER.fatal("Failed to read the message", e);
+        }
+        return false;
+    }
 
-            // x1 = ((a^y)*(v^e)) mod p
+    /**
+     * @see SAlgorithm#verify(String, Integer)
+     */
+    public boolean verify(FileInputStream message, Integer recordId) throws NoSuchAlgorithmException, IOException {
+        return this.verify(new ChannelMessage(message.getChannel()), recordId);
+    }
 
-            x1 = MathUtils.powModFast(this.pqa.getA(),
-                    cryptoKey.getCryptoYPart(),
-                    this.pqa.getP());            // a^y mod p
-            tmp = MathUtils.powModFast(cryptoKey.getPublicKey(),
-                    cryptoKey.getCryptoEPart(),
-                    this.pqa.getP());           // v^e mod p
-            x1 = x1.multiply(tmp).mod(this.pqa.getP()); // x1 = ((a^y)*(v^e)) mod p
+    /**
+     * @see SAlgorithm#verify(String, Integer)
+     * @see SAlgorithm#sign(Path)
+     */
+    public boolean verify(Path message, Integer recordId) throws NoSuchAlgorithmException, IOException {
+        try (FileChannel channel = FileChannel.open(message, StandardOpenOption.READ)) {
+            return this.verify(new ChannelMessage(channel), recordId);
+        }
+    }
 
-            e1 = this.hashCode(message, x1);             // e1 = H(M,x1)
+    /**
+     * @see SAlgorithm#verify(String, Integer)
+     * @see SAlgorithm#sign(FileChannel)
+     */
+    public boolean verify(FileChannel message, Integer recordId) throws NoSuchAlgorithmException, IOException {
+        return this.verify(new ChannelMessage(message), recordId);
+    }
 
-            return e1.equals(cryptoKey.getCryptoEPart());
-        } catch (SQLException e) {
-            LOGGER.fatal("Failed to load crypto key", e);
+    /**
+     * @see SAlgorithm#verify(String, Integer)
+     * @see SAlgorithm#sign(ByteBuffer)
+     */
+    public boolean verify(ByteBuffer message, Integer recordId) throws NoSuchAlgorithmException {
+        try {
+            return this.verify(new BufferMessage(message), recordId);
+        } catch (IOException e) {
+            LOGGER.fatal("Failed to read the message", e);
         }
         return false;
     }
 
     /**
-     * @see SAlgorithm#verify(String, Integer)
+     * Verifies the message against the signature already loaded, i.e. by {@link org.kornicameister.crypto.schnorr.store.KeyCursor}.
+     *
+     * @param message   message
+     * @param cryptoKey signature of the message
+     * @return true if signature is correct
+     * @throws NoSuchAlgorithmException
      */
-    public boolean verify(FileInputStream message, Integer recordId) throws NoSuchAlgorithmException, IOException {
+    public boolean verify(String message, SchnorrCryptoKey cryptoKey) throws NoSuchAlgorithmException {
+        try {
+            return this.verify(new StringMessage(message), cryptoKey);
+        } catch (IOException e) {
+            LOGGER.fatal("Failed to read the message", e);
+        }
+        return false;
+    }
+
+    private boolean verify(Message message, Integer recordId) throws NoSuchAlgorithmException, IOException {
+        SchnorrCryptoKey cryptoKey;
         try {
-            BigInteger x1, e1, tmp;
-            SchnorrCryptoKey cryptoKey = SchnorrCryptoKey.getSchnorrKey(recordId, this.controller);
+            cryptoKey = this.loadCryptoKey(recordId);
+        } catch (SQLException e) {
+            LOGGER.fatal("Failed to load crypto key", e);
+            return false;
+        }
+        if (cryptoKey == null) {
+            LOGGER.warn(String.format("No signature under record %d", recordId));
+            return false;
+        }
+        return this.verify(message, cryptoKey);
+    }
 
-            // x1 = ((a^y)*(v^e)) mod p
+    private boolean verify(Message message, SchnorrCryptoKey cryptoKey) throws NoSuchAlgorithmException, IOException {
+        try {
+            BigInteger x1, e1;
+            SchnorrKeyPair keyPair = this.keyRegistry.getKeyPair(cryptoKey.getSignerId());
+            if (keyPair == null) {
+                LOGGER.warn(String.format("No signer %d of record %d", cryptoKey.getSignerId(), cryptoKey.getPrimaryKey()));
+                return false;
+            }
+            BigInteger publicKey = keyPair.getPublicKey();
 
-            x1 = MathUtils.powModFast(this.pqa.getA(),
-                    cryptoKey.getCryptoYPart(),
-                    this.pqa.getP());            // a^y mod p
-            tmp = MathUtils.powModFast(cryptoKey.getPublicKey(),
-                    cryptoKey.getCryptoEPart(),
-                    this.pqa.getP());           // v^e mod p
-            x1 = x1.multiply(tmp).mod(this.pqa.getP()); // x1 = ((a^y)*(v^e)) mod p
+            x1 = this.computeX1(publicKey, cryptoKey, this.getPublicKeyTable(publicKey));  // x1 = ((a^y)*(v^e)) mod p
 
             e1 = this.hashCode(message, x1);             // e1 = H(M,x1)
 
             return e1.equals(cryptoKey.getCryptoEPart());
         } catch (SQLException e) {
-            LOGGER.fatal("Failed to load crypto key", e);
+            LOGGER.fatal("Failed to load signer key pair", e);
         }
         return false;
     }
 
+    /**
+     * Verifies many messages at once. All required {@link SchnorrCryptoKey} are loaded
+     * with single database pass and public keys shared by at least {@value #BATCH_TABLE_THRESHOLD}
+     * signatures get their own {@link FixedBaseTable} for the time of the batch.
+     * <p/>
+     * Randomized linear-combination check can not be used here, as signature is persisted
+     * as (e,y) and recomputing e requires exact x1 of each message. Hence every
+     * item is checked on its own and the bad ones are reported directly.
+     *
+     * @param items pairs of message and id of the record holding its signature
+     * @return ids of the records that failed verification (or were not found), in order of items
+     * @throws NoSuchAlgorithmException
+     */
+    public List<Integer> verifyBatch(List<Pair<String, Integer>> items) throws NoSuchAlgorithmException {
+        List<Integer> ids = new ArrayList<>(items.size());
+        for (Pair<String, Integer> item : items) {
+            ids.add(item.getSecond());
+        }
+
+        Map<Integer, SchnorrCryptoKey> cryptoKeys;
+        Map<Integer, SchnorrKeyPair> signers;
+        try {
+            cryptoKeys = this.loadCryptoKeys(ids);
+            List<Integer> signerIds = new ArrayList<>(cryptoKeys.size());
+            for (SchnorrCryptoKey cryptoKey : cryptoKeys.values()) {
+                signerIds.add(cryptoKey.getSignerId());
+            }
+            signers = this.keyRegistry.getKeyPairs(signerIds);
+        } catch (SQLException e) {
+            LOGGER.fatal("Failed to load crypto keys", e);
+            return ids;
+        }
+        Map<BigInteger, FixedBaseTable> tables = this.buildBatchTables(cryptoKeys.values(), signers);
+
+        List<Integer> failed = new ArrayList<>();
+        for (Pair<String, Integer> item : items) {
+            SchnorrCryptoKey cryptoKey = cryptoKeys.get(item.getSecond());
+            SchnorrKeyPair keyPair = cryptoKey != null ? signers.get(cryptoKey.getSignerId()) : null;
+            if (keyPair == null) {
+                failed.add(item.getSecond());
+                continue;
+            }
+            BigInteger publicKey = keyPair.getPublicKey();
+            FixedBaseTable table = tables.get(publicKey);
+            BigInteger x1 = this.computeX1(publicKey, cryptoKey, table != null ? table : this.getPublicKeyTable(publicKey));
+            if (!this.hashCode(item.getFirst(), x1).equals(cryptoKey.getCryptoEPart())) {
+                failed.add(item.getSecond());
+            }
+        }
+
+        LOGGER.info(String.format("Verified batch of %d messages, failed=%d", items.size(), failed.size()));
+        return failed;
+    }
+
+    private SchnorrCryptoKey loadCryptoKey(Integer recordId) throws SQLException {
+        WriteBehindWriter writer = this.writeBehind;
+        SchnorrCryptoKey cryptoKey = writer != null ? (SchnorrCryptoKey) writer.getPending(recordId) : null;
+        return cryptoKey != null ? cryptoKey : this.keyStore.getSchnorrKey(recordId);
+    }
+
+    private Map<Integer, SchnorrCryptoKey> loadCryptoKeys(List<Integer> recordIds) throws SQLException {
+        WriteBehindWriter writer = this.writeBehind;
+        if (writer == null) {
+            return this.keyStore.getSchnorrKeys(recordIds);
+        }
+        Map<Integer, SchnorrCryptoKey> cryptoKeys = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer recordId : recordIds) {
+            SchnorrCryptoKey cryptoKey = (SchnorrCryptoKey) writer.getPending(recordId);
+            if (cryptoKey != null) {
+                cryptoKeys.put(recordId, cryptoKey);
+            } else {
+                missing.add(recordId);
+            }
+        }
+        cryptoKeys.putAll(this.keyStore.getSchnorrKeys(missing));
+        return cryptoKeys;
+    }
+
+    private Map<BigInteger, FixedBaseTable> buildBatchTables(Iterable<SchnorrCryptoKey> cryptoKeys,
+                                                             Map<Integer, SchnorrKeyPair> signers) {
+        Map<BigInteger, Integer> counts = new HashMap<>();
+        Map<BigInteger, FixedBaseTable> tables = new HashMap<>();
+        if (this.pqa.getComplexity().isEllipticCurve()) {
+            return tables;
+        }
+        for (SchnorrCryptoKey cryptoKey : cryptoKeys) {
+            SchnorrKeyPair keyPair = signers.get(cryptoKey.getSignerId());
+            if (keyPair == null) {
+                continue;
+            }
+            BigInteger publicKey = keyPair.getPublicKey();
+            Integer count = counts.get(publicKey);
+            count = count == null ? 1 : count + 1;
+            counts.put(publicKey, count);
+            if (count == BATCH_TABLE_THRESHOLD) {
+                tables.put(publicKey, new FixedBaseTable(
+                        publicKey,
+                        this.pqa.getMontgomeryContext(),
+                        this.pqa.getQ().bitLength(),
+                        BATCH_TABLE_WINDOW
+                ));
+            }
+        }
+        return tables;
+    }
+
+    private FixedBaseTable getPublicKeyTable(BigInteger publicKey) {
+        FixedBaseCache cache = this.publicKeyCache;
+        return cache != null ? cache.get(publicKey) : null;
+    }
+
+    /**
+     * Computes <verb>x1 = ((a^y)*(v^e)) mod p</verb> with {@link SchnorrGroup#combine(BigInteger, BigInteger, BigInteger)},
+     * that is with single simultaneous exponentiation modulo p.
+     *
+     * If {@link FixedBaseTable} of the public key is available, both powers are
+     * taken from fixed base tables instead.
+     *
+     * @param publicKey      public key of the signer, v
+     * @param cryptoKey      signature
+     * @param publicKeyTable table of v, may be null
+     * @return x1
+     */
+    private BigInteger computeX1(BigInteger publicKey, SchnorrCryptoKey cryptoKey, FixedBaseTable publicKeyTable) {
+        if (publicKeyTable != null) {
+            return this.pqa.getFixedBaseTable().pow(cryptoKey.getCryptoYPart())
+                    .multiply(publicKeyTable.pow(cryptoKey.getCryptoEPart().mod(this.pqa.getQ())))
+                    .mod(this.pqa.getP());
+        }
+        return this.group.combine(cryptoKey.getCryptoYPart(), publicKey, cryptoKey.getCryptoEPart());
+    }
+
     /**
      * Not overridden method, but simple utility allowing to
      * calculate hashCode
@@ -238,7 +662,7 @@ public class SAlgorithm {
      * @return hash result
      */
     public BigInteger hashCode(String message, BigInteger signParam) throws NoSuchAlgorithmException {
-        MessageDigest sha512 = MessageDigest.getInstance(SHA_512);
+        MessageDigest sha512 = sha512();
 
         sha512.update(message.getBytes());
         sha512.update(signParam.toByteArray());
@@ -248,7 +672,8 @@ public class SAlgorithm {
 
     /**
      * Similar to the hashCode method getting String on the input. However this
-     * method is extended to handle case when there is a strong need to hash an input stream
+     * method is extended to handle case when there is a strong need to hash an input stream.
+     * Stream is read through its {@link FileChannel}, see {@link DigestUtils}.
      *
      * @param message   message to calculate hash code
      * @param signParam signing param
@@ -257,21 +682,261 @@ public class SAlgorithm {
      * @throws IOException
      */
     public BigInteger hashCode(FileInputStream message, BigInteger signParam) throws NoSuchAlgorithmException, IOException {
-        InputStream in = new BufferedInputStream(message);
-        byte[] block = new byte[1024];
-        int count;
-        MessageDigest sha512 = MessageDigest.getInstance(SHA_512);
+        return this.hashCode(new ChannelMessage(message.getChannel()), signParam);
+    }
 
-        while ((count = in.read(block)) != -1) {
-            sha512.update(block, 0, count);
-        }
+    /**
+     * @see SAlgorithm#hashCode(FileInputStream, BigInteger)
+     */
+    public BigInteger hashCode(FileChannel message, BigInteger signParam) throws NoSuchAlgorithmException, IOException {
+        return this.hashCode(new ChannelMessage(message), signParam);
+    }
+
+    /**
+     * @see SAlgorithm#hashCode(String, BigInteger)
+     */
+    public BigInteger hashCode(ByteBuffer message, BigInteger signParam) throws NoSuchAlgorithmException {
+        MessageDigest sha512 = sha512();
 
+        DigestUtils.update(sha512, message);
         sha512.update(signParam.toByteArray());
 
         return new BigInteger(1, sha512.digest());
     }
 
+    private BigInteger hashCode(Message message, BigInteger signParam) throws NoSuchAlgorithmException, IOException {
+        MessageDigest sha512 = sha512();
+
+        message.update(sha512);
+        sha512.update(signParam.toByteArray());
+
+        return new BigInteger(1, sha512.digest());
+    }
+
+    /**
+     * @return digest of the current thread, already reset
+     * @throws NoSuchAlgorithmException
+     */
+    private static MessageDigest sha512() throws NoSuchAlgorithmException {
+        MessageDigest sha512 = SHA_512_DIGEST.get();
+        if (sha512 == null) {
+            throw new NoSuchAlgorithmException(SHA_512);
+        }
+        sha512.reset();
+        return sha512;
+    }
+
+    private static MessageDigest cloneDigest(MessageDigest digest) throws NoSuchAlgorithmException {
+        try {
+            return (MessageDigest) digest.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new NoSuchAlgorithmException(String.format("%s can not be cloned", digest), e);
+        }
+    }
+
     public SAlgorithmPQA getPQA() {
         return this.pqa;
     }
+
+    /**
+     * Enables offline/online signing. Background threads precompute signing commitments
+     * into the {@link CommitmentPool} and sign takes them from it. Previously enabled pool is closed.
+     *
+     * @param lowWatermark  size below which pool is refilled
+     * @param highWatermark size up to which pool is refilled
+     * @param threads       amount of refill threads
+     * @return started pool, for monitoring purposes
+     * @throws UnsupportedOperationException if nonces are deterministic, see {@link NonceSource#isDeterministic()}
+     */
+    public CommitmentPool enableCommitmentPool(int lowWatermark, int highWatermark, int threads) {
+        if (this.nonceSource.isDeterministic()) {
+            throw new UnsupportedOperationException(String.format("Commitments are not supported by %s", this.nonceSource));
+        }
+        CommitmentPool pool = new CommitmentPool(
+                this.group.getGenerator(),
+                this.keyLength - 1,
+                lowWatermark,
+                highWatermark,
+                threads,
+                this.nonceSource
+        );
+        this.disableCommitmentPool();
+        this.commitmentPool = pool;
+        return pool;
+    }
+
+    /**
+     * Stops precomputing signing commitments, sign computes them in place again.
+     */
+    public void disableCommitmentPool() {
+        CommitmentPool pool = this.commitmentPool;
+        this.commitmentPool = null;
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Enables write-behind persistence. Sign returns as soon as the signature is computed,
+     * its id comes from the block reserved in advance and the signature is written by
+     * the background thread, see {@link WriteBehindWriter}. Signatures not written yet
+     * are verified as well. Previously enabled writer is closed.
+     *
+     * @param blockSize     amount of ids reserved at once
+     * @param queueCapacity maximal amount of signatures waiting to be written, sign blocks beyond it
+     * @param maxBatch      maximal amount of signatures written in single transaction
+     * @return started writer, for monitoring purposes
+     * @throws SQLException if previous writer failed to write
+     * @throws UnsupportedOperationException if signatures are not kept in {@link SQLiteKeyStore}
+     */
+    public WriteBehindWriter enableWriteBehind(int blockSize, int queueCapacity, int maxBatch) throws SQLException {
+        SchnorrKeyStore store = this.keyStore;
+        if (store instanceof CachingKeyStore) {
+            store = ((CachingKeyStore) store).getDelegate();
+        }
+        if (!(store instanceof SQLiteKeyStore)) {
+            throw new UnsupportedOperationException(String.format("Write-behind is not supported by %s", store));
+        }
+        WriteBehindWriter writer = new WriteBehindWriter(((SQLiteKeyStore) store).getController(),
+                SchnorrCryptoKey.class,
+                blockSize, queueCapacity, maxBatch);
+        WriteBehindWriter previous = this.writeBehind;
+        this.writeBehind = writer;
+        if (previous != null) {
+            previous.close();
+        }
+        return writer;
+    }
+
+    /**
+     * Writes all pending signatures and returns to synchronous persistence.
+     *
+     * @throws SQLException if any signature could not be written
+     */
+    public void disableWriteBehind() throws SQLException {
+        WriteBehindWriter writer = this.writeBehind;
+        this.writeBehind = null;
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    /**
+     * Waits until every signature made before is durable, that is written by
+     * the write-behind writer, if enabled, and flushed by {@link SchnorrKeyStore#flush()}.
+     *
+     * @throws SQLException if any signature could not be written
+     */
+    public void flush() throws SQLException {
+        WriteBehindWriter writer = this.writeBehind;
+        if (writer != null) {
+            writer.flush();
+        }
+        this.keyStore.flush();
+    }
+
+    public WriteBehindWriter getWriteBehind() {
+        return writeBehind;
+    }
+
+    public NonceSource getNonceSource() {
+        return nonceSource;
+    }
+
+    /**
+     * Replaces the source of private keys and nonces, {@link DrbgNonceSource} by default.
+     * Deterministic source disables {@link CommitmentPool}, nonce depends on the message then.
+     *
+     * @param nonceSource source of randomness
+     */
+    public void setNonceSource(NonceSource nonceSource) {
+        if (nonceSource.isDeterministic()) {
+            this.disableCommitmentPool();
+        }
+        this.nonceSource = nonceSource;
+    }
+
+    public CommitmentPool getCommitmentPool() {
+        return commitmentPool;
+    }
+
+    public FixedBaseCache getPublicKeyCache() {
+        return publicKeyCache;
+    }
+
+    /**
+     * Replaces cache of public keys' {@link FixedBaseTable}. Cache must be
+     * built for the Montgomery context of this algorithm's p.
+     *
+     * @param publicKeyCache new cache, null disables caching
+     * @throws UnsupportedOperationException if cache is given for elliptic curve
+     */
+    public void setPublicKeyCache(FixedBaseCache publicKeyCache) {
+        if (publicKeyCache != null && this.pqa.getComplexity().isEllipticCurve()) {
+            throw new UnsupportedOperationException(String.format("Public key cache is not supported by %s",
+                    this.group));
+        }
+        this.publicKeyCache = publicKeyCache;
+    }
+
+    /**
+     * Source of the message's bytes, regardless of where message is kept.
+     */
+    private interface Message {
+        void update(MessageDigest digest) throws IOException;
+    }
+
+    private static class StringMessage implements Message {
+        private final String message;
+
+        private StringMessage(String message) {
+            this.message = message;
+        }
+
+        @Override
+        public void update(MessageDigest digest) {
+            digest.update(this.message.getBytes());
+        }
+
+        @Override
+        public String toString() {
+            return this.message;
+        }
+    }
+
+    private static class ChannelMessage implements Message {
+        private final FileChannel channel;
+
+        private ChannelMessage(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void update(MessageDigest digest) throws IOException {
+            DigestUtils.update(digest, this.channel);
+        }
+
+        @Override
+        public String toString() {
+            return this.channel.toString();
+        }
+    }
+
+    private static class BufferMessage implements Message {
+        private final ByteBuffer buffer;
+
+        private BufferMessage(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void update(MessageDigest digest) {
+            DigestUtils.update(digest, this.buffer);
+        }
+
+        @Override
+        public String toString() {
+            return this.buffer.toString();
+        }
+    }
 }
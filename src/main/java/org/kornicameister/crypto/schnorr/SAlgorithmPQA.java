@@ -2,16 +2,44 @@ package org.kornicameister.crypto.schnorr;
 
 import org.apache.log4j.Logger;
 import org.kornicameister.crypto.schnorr.exception.PQAGenerationException;
+import org.kornicameister.crypto.schnorr.exception.PQAValidationException;
+import org.kornicameister.crypto.schnorr.group.EcGroup;
+import org.kornicameister.crypto.schnorr.group.ModPGroup;
+import org.kornicameister.crypto.schnorr.group.SchnorrGroup;
+import org.kornicameister.crypto.utils.EllipticCurve;
+import org.kornicameister.crypto.utils.FixedBaseTable;
 import org.kornicameister.crypto.utils.MathUtils;
+import org.kornicameister.crypto.utils.MontgomeryContext;
+import org.kornicameister.crypto.utils.PrimeSieve;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 /**
  * SAlgorithmPQA is the utility-like class that can be used
@@ -25,6 +53,26 @@ import java.util.concurrent.TimeUnit;
  * <dt>Param <strong>a</strong></dt>
  * <dd>Number that multiplicative order modulo p is q, which means <verb>a^q = 1 mod p</verb></dd>
  * </dl>
+ * Additionally, as <strong>a</strong> is the base of most of the exponentiations
+ * in {@link SAlgorithm}, this class lazily builds {@link FixedBaseTable} for it.
+ * <h3>Elliptic curve</h3>
+ * For {@link SComplexity#isEllipticCurve()} complexities parameters describe the curve instead:
+ * <strong>p</strong> is the field prime, <strong>q</strong> the order of the curve and
+ * <strong>a</strong> the compressed generator. Such parameters are never generated, and
+ * neither Montgomery context nor fixed base table is built for them, see {@link SAlgorithmPQA#getGroup()}.
+ * <h3>Binary file</h3>
+ * Parameters can be kept in the binary file together with the {@link MontgomeryContext}
+ * and the {@link FixedBaseTable} built for them, see {@link SAlgorithmPQA#toBinaryFile(Path)}.
+ * Loading such a file maps it and copies the precomputed data out, hence nothing is rebuilt.
+ * File is laid out as follows, all numbers being big-endian:
+ * <ol>
+ * <li>magic {@value #BINARY_MAGIC} and version {@value #BINARY_VERSION}, 4 bytes each</li>
+ * <li>name of the {@link SComplexity}, as of {@link DataOutputStream#writeUTF(String)}</li>
+ * <li>p, q and a, each being 4 bytes of length followed by two's-complement bytes</li>
+ * <li>Montgomery context of p, see {@link MontgomeryContext#write(java.io.DataOutput)}</li>
+ * <li>fixed base table of a, see {@link FixedBaseTable#write(java.io.DataOutput)}</li>
+ * <li>CRC32 of all of the above, 8 bytes</li>
+ * </ol>
  *
  * @author kornicameister
  */
@@ -32,10 +80,17 @@ public class SAlgorithmPQA {
     private final static Logger LOGGER = Logger.getLogger(SAlgorithmPQA.class);
     private static final int RADIX = 16;
     private static final int MAX_STEPS = 4096;
+    private static final int SIEVE_WINDOW = 4096;
+    private static final int BINARY_MAGIC = 0x4a535051;
+    private static final int BINARY_VERSION = 1;
+    private static final int CHECKSUM_CHUNK = 8192;
     private final Random randomSeed;
     private final SComplexity complexity;
     private BigInteger p, q, a;
     private int certainty;
+    private volatile MontgomeryContext montgomeryContext;
+    private volatile FixedBaseTable fixedBaseTable;
+    private volatile SchnorrGroup group;
 
     private SAlgorithmPQA(SComplexity complexity) {
         this.p = null;
@@ -59,54 +114,84 @@ public class SAlgorithmPQA {
      * Method that takes generates entry points for DSA::Schnorr algorithm
      * based on given {@link SComplexity}. Keys lengths varies significantly
      * between each level, therefore computation times increases with each
-     * one of them
+     * one of them. Candidates are tested on as many threads as there are
+     * available processors.
      *
      * @param complexity for generator
      * @return fully initialized SAlgorithmPQA object with p,q and a parameters set
      * @throws PQAGenerationException
+     * @see SAlgorithmPQA#generate(SComplexity, int)
      */
     public static SAlgorithmPQA generate(SComplexity complexity) throws PQAGenerationException {
+        return generate(complexity, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Generates entry points for DSA::Schnorr algorithm testing prime candidates
+     * for <strong>q</strong> and <strong>p</strong> on several threads simultaneously.
+     * First prime found by any of the workers wins and the others are cancelled.
+     *
+     * @param complexity for generator
+     * @param threads    amount of worker threads
+     * @return fully initialized SAlgorithmPQA object with p,q and a parameters set
+     * @throws PQAGenerationException
+     */
+    public static SAlgorithmPQA generate(SComplexity complexity, int threads) throws PQAGenerationException {
+        EllipticCurve curve = curve(complexity);
+        if (curve != null) {
+            // curves are standard, nothing to generate
+            return of(complexity, curve.getP(), curve.getN(), curve.encode(curve.getGenerator()));
+        }
         SAlgorithmPQA sAlgorithm = new SAlgorithmPQA(complexity);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
         long time = System.nanoTime();
 
-        BigInteger q = generateQFactor(
-                sAlgorithm.certainty,
-                BigInteger.probablePrime(
-                        sAlgorithm.complexity.getQBitLength(),
-                        sAlgorithm.randomSeed
-                )
-        );
-        BigInteger p = generatePFactor(
-                sAlgorithm.randomSeed,
-                sAlgorithm.complexity,
-                sAlgorithm.certainty,
-                q
-        );
-        if (p == null) {
-            throw new PQAGenerationException("p computation timed off");
-        }
-        BigInteger a = generateAFactor(
-                sAlgorithm.randomSeed,
-                p,
-                q
-        );
-        if (a == null) {
-            throw new PQAGenerationException("a computation timed off");
-        }
+        try {
+            BigInteger q = generateQFactor(
+                    executor,
+                    Math.max(1, threads),
+                    sAlgorithm.certainty,
+                    BigInteger.probablePrime(
+                            sAlgorithm.complexity.getQBitLength(),
+                            sAlgorithm.randomSeed
+                    )
+            );
+            BigInteger p = generatePFactor(
+                    executor,
+                    Math.max(1, threads),
+                    sAlgorithm.complexity,
+                    sAlgorithm.certainty,
+                    q
+            );
+            if (p == null) {
+                throw new PQAGenerationException("p computation timed off");
+            }
+            BigInteger a = generateAFactor(
+                    sAlgorithm.randomSeed,
+                    p,
+                    q
+            );
+            if (a == null) {
+                throw new PQAGenerationException("a computation timed off");
+            }
 
-        if (q.equals(q.mod(p))) {
-            sAlgorithm.q = q;
-            sAlgorithm.p = p;
-            sAlgorithm.a = a;
+            if (q.equals(q.mod(p))) {
+                sAlgorithm.q = q;
+                sAlgorithm.p = p;
+                sAlgorithm.a = a;
 
-            LOGGER.info(String.format("Schnorr algorithm PQA found, took=%dms\np=%s\nq=%s\na=%s",
-                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - time),
-                    p.toString(RADIX),
-                    q.toString(RADIX),
-                    a.toString(RADIX))
-            );
+                LOGGER.info(String.format("Schnorr algorithm PQA found, took=%dms, threads=%d\np=%s\nq=%s\na=%s",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - time),
+                        threads,
+                        p.toString(RADIX),
+                        q.toString(RADIX),
+                        a.toString(RADIX))
+                );
 
-            return sAlgorithm;
+                return sAlgorithm;
+            }
+        } finally {
+            executor.shutdownNow();
         }
 
         return null;
@@ -129,15 +214,15 @@ public class SAlgorithmPQA {
      * @param p          already calculated p
      * @param q          already calculated q
      * @return calculated a
-     * @see SAlgorithmPQA#generatePFactor(java.util.Random, SComplexity, int, java.math.BigInteger)
-     * @see SAlgorithmPQA#generateQFactor(int, java.math.BigInteger)
+     * @see SAlgorithmPQA#generatePFactor(ExecutorService, int, SComplexity, int, BigInteger)
+     * @see SAlgorithmPQA#generateQFactor(ExecutorService, int, int, BigInteger)
      */
     private static BigInteger generateAFactor(Random randomSeed, BigInteger p, BigInteger q) {
         long time = System.nanoTime();
         BigInteger a = null, h = MathUtils.random(p.subtract(BigInteger.ONE), randomSeed);
         int step = 0;
         while ((step++) < MAX_STEPS) {
-            a = MathUtils.powModFast(h, p.subtract(BigInteger.ONE).divide(q), p);
+            a = MathUtils.powMod(h, p.subtract(BigInteger.ONE).divide(q), p);
             if (a.compareTo(BigInteger.ONE) != 0) {
                 LOGGER.info(
                         String.format(
@@ -155,73 +240,168 @@ public class SAlgorithmPQA {
 
     /**
      * Complex method that is used to generate <strong>p</strong> parameter
-     * for Schnorr. When computation is started, the method goes by following
+     * for Schnorr. When computation is started, each of the workers goes by following
      * algorithm:
      * <ol>
      * <li>generating random <i>M</i> that bitLength reaches up to given in complexity for p param</li>
      * <li>calculates M_r as <verb>M_r = M mod 2q</verb></li>
      * <li>calculates p as <verb>p = (M - Mr) + 1</verb></li>
-     * <li>checks for p being prime on given certainty</li>
+     * <li>sieves {@value #SIEVE_WINDOW} candidates <verb>p + 2qk</verb> with {@link PrimeSieve}</li>
+     * <li>checks survivors for being prime on given certainty</li>
      * <li>if p is prime than algorithm is finised, otherwise all steps must be taken again</li>
      * </ol>
+     * All workers share {@value #MAX_STEPS} primality tests and the first prime found cancels the others.
      *
-     * @param randomSeed seed used throughout whole generator
+     * @param executor   executor to run workers on
+     * @param workers    amount of workers
      * @param complexity of the generator, determines p's bitLength
      * @param certainty  against which prime test is begin taken
      * @param q          already calculated q
-     * @return nice and fresh <p>p</p>
+     * @return nice and fresh <p>p</p> or null if computation timed off
      * @see SComplexity
      */
     private static BigInteger generatePFactor(
-            Random randomSeed,
-            SComplexity complexity,
-            int certainty,
-            BigInteger q) {
-        long time = System.nanoTime();
-        BigInteger m;
-        BigInteger mR;
-        BigInteger p = null;
-        int step = 0;
-        while ((step++) < MAX_STEPS) {
-            m = new BigInteger(complexity.getPBitLength(), randomSeed);
-            mR = m.mod(q.multiply(MathUtils.INTEGER_2));
-            p = m.subtract(mR).add(BigInteger.ONE);
-            if (p.isProbablePrime(certainty)) {
-                LOGGER.info(
-                        String.format(
-                                "Generated p number, took=%dms\nq=%s",
-                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - time),
-                                p.toString(RADIX)
-                        )
-                );
-                break;
-            }
+            ExecutorService executor,
+            int workers,
+            final SComplexity complexity,
+            final int certainty,
+            final BigInteger q) {
+        final long time = System.nanoTime();
+        final AtomicInteger steps = new AtomicInteger();
+        final BigInteger q2 = q.multiply(MathUtils.INTEGER_2);
+        List<Callable<BigInteger>> tasks = new ArrayList<>(workers);
+
+        for (int i = 0; i < workers; i++) {
+            tasks.add(new Callable<BigInteger>() {
+                @Override
+                public BigInteger call() throws Exception {
+                    Random randomSeed = new SecureRandom();
+                    BigInteger m;
+                    BigInteger mR;
+                    BigInteger p;
+                    while (steps.get() < MAX_STEPS) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new InterruptedException();
+                        }
+                        m = new BigInteger(complexity.getPBitLength(), randomSeed);
+                        mR = m.mod(q2);
+                        p = m.subtract(mR).add(BigInteger.ONE);
+
+                        PrimeSieve sieve = new PrimeSieve(p, q2, SIEVE_WINDOW);
+                        for (int k = sieve.nextCandidate(0); k >= 0; k = sieve.nextCandidate(k + 1)) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                throw new InterruptedException();
+                            }
+                            p = sieve.candidate(k);
+                            if (p.bitLength() > complexity.getPBitLength()
+                                    || steps.getAndIncrement() >= MAX_STEPS) {
+                                break;
+                            }
+                            if (p.isProbablePrime(certainty)) {
+                                LOGGER.info(
+                                        String.format(
+                                                "Generated p number, took=%dms, steps=%d\np=%s",
+                                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - time),
+                                                steps.get(),
+                                                p.toString(RADIX)
+                                        )
+                                );
+                                return p;
+                            }
+                        }
+                    }
+                    throw new PQAGenerationException("p computation timed off");
+                }
+            });
         }
-        return p;
+
+        return findFirst(executor, tasks);
     }
 
     /**
      * Method calculates <strong>q</strong> param for Schnorr. It is quite simple
      * if compared to <b>p</b> generating method. It does nothing but recomputes
-     * provided q value if such does not meet prime condition.
+     * provided q value if such does not meet prime condition. Odd successors of q
+     * are split into windows of {@value #SIEVE_WINDOW} candidates, each of the workers
+     * takes every <b>workers</b>-th window and sieves it with {@link PrimeSieve}
+     * before the primality tests.
      *
+     * @param executor  executor to run workers on
+     * @param workers   amount of workers
      * @param certainty used to check whether or not q is prime
      * @param q         initial value of q
      * @return calculate q
      */
-    private static BigInteger generateQFactor(int certainty, BigInteger q) {
-        long time = System.nanoTime();
-        while (!q.isProbablePrime(certainty)) {
-            q = q.add(BigInteger.ONE);
+    private static BigInteger generateQFactor(ExecutorService executor,
+                                              final int workers,
+                                              final int certainty,
+                                              final BigInteger q) {
+        final long time = System.nanoTime();
+        if (q.isProbablePrime(certainty)) {
+            return q;
         }
-        LOGGER.info(
-                String.format(
-                        "Generated q number, took=%dms\nq=%s",
-                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - time),
-                        q.toString(RADIX)
-                )
-        );
-        return q;
+        List<Callable<BigInteger>> tasks = new ArrayList<>(workers);
+
+        final BigInteger window = BigInteger.valueOf(2L * SIEVE_WINDOW);
+        final BigInteger stride = window.multiply(BigInteger.valueOf(workers));
+        final BigInteger first = q.testBit(0) ? q.add(MathUtils.INTEGER_2) : q.add(BigInteger.ONE);
+
+        for (int i = 0; i < workers; i++) {
+            final BigInteger offset = window.multiply(BigInteger.valueOf(i));
+            tasks.add(new Callable<BigInteger>() {
+                @Override
+                public BigInteger call() throws Exception {
+                    BigInteger start = first.add(offset);
+                    while (true) {
+                        if (Thread.currentThread().isInterrupted()) {
+                            throw new InterruptedException();
+                        }
+                        PrimeSieve sieve = new PrimeSieve(start, MathUtils.INTEGER_2, SIEVE_WINDOW);
+                        for (int k = sieve.nextCandidate(0); k >= 0; k = sieve.nextCandidate(k + 1)) {
+                            if (Thread.currentThread().isInterrupted()) {
+                                throw new InterruptedException();
+                            }
+                            BigInteger candidate = sieve.candidate(k);
+                            if (candidate.isProbablePrime(certainty)) {
+                                LOGGER.info(
+                                        String.format(
+                                                "Generated q number, took=%dms\nq=%s",
+                                                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - time),
+                                                candidate.toString(RADIX)
+                                        )
+                                );
+                                return candidate;
+                            }
+                        }
+                        start = start.add(stride);
+                    }
+                }
+            });
+        }
+
+        BigInteger found = findFirst(executor, tasks);
+        if (found == null) {
+            throw new PQAGenerationException("q computation failed");
+        }
+        return found;
+    }
+
+    /**
+     * Runs all the tasks and returns the result of the one that finished first,
+     * remaining ones are cancelled.
+     *
+     * @return result or null if none of the tasks succeeded
+     */
+    private static BigInteger findFirst(ExecutorService executor, List<Callable<BigInteger>> tasks) {
+        try {
+            return executor.invokeAny(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for the workers", e);
+        } catch (ExecutionException e) {
+            LOGGER.warn("None of the workers succeeded", e.getCause());
+        }
+        return null;
     }
 
     /**
@@ -260,6 +440,9 @@ public class SAlgorithmPQA {
         this.q = new BigInteger(properties.getProperty("qNumber"), RADIX);
         this.p = new BigInteger(properties.getProperty("pNumber"), RADIX);
         this.a = new BigInteger(properties.getProperty("aNumber"), RADIX);
+        this.montgomeryContext = null;
+        this.fixedBaseTable = null;
+        this.group = null;
 
         LOGGER.info(String.format("Loaded [p,q,a]=[%s,%s,%s]",
                 p.toString(RADIX),
@@ -283,6 +466,159 @@ public class SAlgorithmPQA {
         return pqa;
     }
 
+    /**
+     * Loads [p,q,a] as {@link SAlgorithmPQA#loadFromProperties(SComplexity, String)} does
+     * and validates them, unless validator found them valid before.
+     *
+     * @param complexity of the algorithm
+     * @param pFile      path to properties file
+     * @param validator  validator of the parameters
+     * @return nice and fresh object of this class
+     * @throws IOException
+     * @throws PQAValidationException if parameters are invalid
+     */
+    public static SAlgorithmPQA loadFromProperties(SComplexity complexity, String pFile, PQAValidator validator)
+            throws IOException, PQAValidationException {
+        SAlgorithmPQA pqa = loadFromProperties(complexity, pFile);
+        validator.validate(pqa);
+        return pqa;
+    }
+
+    /**
+     * Creates the object of already known [p,q,a], nothing is computed nor checked.
+     *
+     * @param complexity of the algorithm
+     * @return object of this class with p,q and a parameters set
+     * @see SParameters
+     */
+    static SAlgorithmPQA of(SComplexity complexity, BigInteger p, BigInteger q, BigInteger a) {
+        SAlgorithmPQA pqa = new SAlgorithmPQA(complexity);
+        pqa.p = p;
+        pqa.q = q;
+        pqa.a = a;
+        return pqa;
+    }
+
+    /**
+     * Stores [p,q,a] with the Montgomery context and the fixed base table in the binary file,
+     * table is built beforehand if it was not yet. File is written aside and moved over
+     * the given one, so that it is never partially written.
+     *
+     * @param file path to binary file
+     * @throws IOException
+     * @throws UnsupportedOperationException for elliptic curve, it has no table of that kind
+     * @see SAlgorithmPQA#loadFromBinaryFile(Path)
+     */
+    public void toBinaryFile(Path file) throws IOException {
+        long time = System.nanoTime();
+        FixedBaseTable table = this.getFixedBaseTable();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 checksum = new CRC32();
+
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)), checksum))) {
+            out.writeInt(BINARY_MAGIC);
+            out.writeInt(BINARY_VERSION);
+            out.writeUTF(this.complexity.name());
+            writeNumber(out, this.p);
+            writeNumber(out, this.q);
+            writeNumber(out, this.a);
+            table.getContext().write(out);
+            table.write(out);
+            // checksum of everything written so far
+            out.writeLong(checksum.getValue());
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        LOGGER.info(String.format("Saved [p,q,a] to binary file %s, took=%dms, size=%d",
+                file,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - time),
+                Files.size(file))
+        );
+    }
+
+    /**
+     * Loads [p,q,a] with the Montgomery context and the fixed base table stored
+     * by {@link SAlgorithmPQA#toBinaryFile(Path)}. Checksum is verified before anything is read.
+     *
+     * @param file path to binary file
+     * @return object of this class with the table ready to use
+     * @throws IOException if file could not be read, is corrupted or of unknown version
+     */
+    public static SAlgorithmPQA loadFromBinaryFile(Path file) throws IOException {
+        long time = System.nanoTime();
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int end = buffer.capacity() - 8;
+        if (end < 8 || buffer.getInt(0) != BINARY_MAGIC) {
+            throw new IOException(String.format("%s is not the binary parameters file", file));
+        }
+        if (buffer.getInt(4) != BINARY_VERSION) {
+            throw new IOException(String.format("Unsupported version %d of %s", buffer.getInt(4), file));
+        }
+        if (checksum(buffer, end) != buffer.getLong(end)) {
+            throw new IOException(String.format("Checksum mismatch of %s", file));
+        }
+
+        try {
+            buffer.position(8).limit(end);
+            byte[] name = new byte[buffer.getShort() & 0xffff];
+            buffer.get(name);
+            SAlgorithmPQA pqa = new SAlgorithmPQA(SComplexity.valueOf(new String(name, StandardCharsets.UTF_8)));
+            pqa.p = readNumber(buffer);
+            pqa.q = readNumber(buffer);
+            pqa.a = readNumber(buffer);
+            pqa.montgomeryContext = MontgomeryContext.read(buffer, pqa.p);
+            pqa.fixedBaseTable = FixedBaseTable.read(buffer, pqa.a, pqa.montgomeryContext);
+            if (buffer.hasRemaining()) {
+                throw new IOException(String.format("Unexpected %d bytes in %s", buffer.remaining(), file));
+            }
+
+            LOGGER.info(String.format("Loaded [p,q,a]=[%s,%s,%s] from binary file %s, took=%dms, table=%s",
+                    pqa.p.toString(RADIX),
+                    pqa.q.toString(RADIX),
+                    pqa.a.toString(RADIX),
+                    file,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - time),
+                    pqa.fixedBaseTable)
+            );
+            return pqa;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException(String.format("Malformed binary parameters file %s", file), e);
+        }
+    }
+
+    private static void writeNumber(DataOutputStream out, BigInteger number) throws IOException {
+        byte[] bytes = number.toByteArray();
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static BigInteger readNumber(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 1 || length > buffer.remaining()) {
+            throw new IllegalArgumentException(String.format("Invalid length %d of the number", length));
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new BigInteger(bytes);
+    }
+
+    private static long checksum(ByteBuffer buffer, int end) {
+        CRC32 checksum = new CRC32();
+        byte[] chunk = new byte[CHECKSUM_CHUNK];
+        ByteBuffer source = buffer.duplicate();
+        source.position(0).limit(end);
+        while (source.hasRemaining()) {
+            int length = Math.min(chunk.length, source.remaining());
+            source.get(chunk, 0, length);
+            checksum.update(chunk, 0, length);
+        }
+        return checksum.getValue();
+    }
+
     public BigInteger getP() {
         return p;
     }
@@ -299,6 +635,107 @@ public class SAlgorithmPQA {
         return complexity;
     }
 
+    /**
+     * Returns {@link MontgomeryContext} of the <strong>p</strong> parameter,
+     * created on the first call.
+     *
+     * @return Montgomery context of p
+     * @throws UnsupportedOperationException for elliptic curve
+     */
+    public MontgomeryContext getMontgomeryContext() {
+        MontgomeryContext context = this.montgomeryContext;
+        if (context == null) {
+            this.checkNotEllipticCurve();
+            synchronized (this) {
+                context = this.montgomeryContext;
+                if (context == null) {
+                    context = MontgomeryContext.forModulus(this.p);
+                    this.montgomeryContext = context;
+                }
+            }
+        }
+        return context;
+    }
+
+    /**
+     * Returns {@link FixedBaseTable} for the <strong>a</strong> parameter.
+     * Table is built on the first call and covers exponents up to
+     * q's bit-length. Window width is taken from the {@link SComplexity}.
+     *
+     * @return fixed base table for a
+     * @throws UnsupportedOperationException for elliptic curve
+     */
+    public FixedBaseTable getFixedBaseTable() {
+        FixedBaseTable table = this.fixedBaseTable;
+        if (table == null) {
+            this.checkNotEllipticCurve();
+            synchronized (this) {
+                table = this.fixedBaseTable;
+                if (table == null) {
+                    long time = System.nanoTime();
+                    table = new FixedBaseTable(
+                            this.a,
+                            this.getMontgomeryContext(),
+                            Math.max(this.q.bitLength(), this.complexity.getQBitLength()),
+                            this.complexity.getFixedBaseWindow()
+                    );
+                    this.fixedBaseTable = table;
+                    LOGGER.info(String.format("Built fixed base table for a, took=%dms, table=%s",
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - time),
+                            table)
+                    );
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the group signatures are made in, created on the first call.
+     * That is {@link ModPGroup} built on {@link SAlgorithmPQA#getFixedBaseTable()}
+     * or {@link EcGroup} of the curve of the complexity.
+     *
+     * @return group of the parameters
+     */
+    public SchnorrGroup getGroup() {
+        SchnorrGroup group = this.group;
+        if (group == null) {
+            synchronized (this) {
+                group = this.group;
+                if (group == null) {
+                    EllipticCurve curve = curve(this.complexity);
+                    if (curve == null) {
+                        group = new ModPGroup(this.getFixedBaseTable(), this.q);
+                    } else if (curve.getP().equals(this.p) && curve.getN().equals(this.q)
+                            && curve.encode(curve.getGenerator()).equals(this.a)) {
+                        group = new EcGroup(curve, this.complexity.getFixedBaseWindow());
+                    } else {
+                        throw new IllegalStateException(String.format("[p,q,a] are not the ones of %s", curve));
+                    }
+                    this.group = group;
+                }
+            }
+        }
+        return group;
+    }
+
+    /**
+     * @param complexity of the algorithm
+     * @return curve of the complexity or null if it is not elliptic curve one
+     */
+    public static EllipticCurve curve(SComplexity complexity) {
+        switch (complexity) {
+            case EC_P256:
+                return EllipticCurve.P_256;
+        }
+        return null;
+    }
+
+    private void checkNotEllipticCurve() {
+        if (this.complexity.isEllipticCurve()) {
+            throw new UnsupportedOperationException(String.format("%s is elliptic curve", this.complexity));
+        }
+    }
 
     @Override
     public String toString() {
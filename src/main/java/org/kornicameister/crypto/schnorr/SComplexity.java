@@ -5,21 +5,40 @@ package org.kornicameister.crypto.schnorr;
  * Contains two numbers where first one describes bit-length of
  * <b>p</b> param and the second one is related to the <b>q's</q>
  * bit-length.
- * 
+ * <p/>
+ * Each level defines also the window width of the {@link org.kornicameister.crypto.utils.FixedBaseTable}
+ * built for the generator <b>a</b>. Wider window means less multiplications
+ * per exponentiation but the table grows as <verb>2^window</verb>. Defaults keep
+ * the table below 1MB.
+ * <p/>
+ * {@link SComplexity#EC_P256} is the group of points of NIST P-256 instead, see
+ * {@link org.kornicameister.crypto.schnorr.group.EcGroup}. Both numbers are 256 bits then,
+ * the bit-length of the field prime and of the order of the curve, and the window
+ * is the one of {@link org.kornicameister.crypto.utils.EcFixedBaseTable} of the generator.
+ *
  * @author kornicameister
  * @since 0.0.1
  */
 public enum SComplexity {
-    S_320(1024, 160),
-    S_448(2048, 224),
-    S_512(3072, 256);
+    S_320(1024, 160, 6),
+    S_448(2048, 224, 6),
+    S_512(3072, 256, 5),
+    EC_P256(256, 256, 6, true);
 
     private final int pBitLength;
     private final int qBitLength;
+    private final int fixedBaseWindow;
+    private final boolean ellipticCurve;
 
-    SComplexity(int i, int i1) {
+    SComplexity(int i, int i1, int window) {
+        this(i, i1, window, false);
+    }
+
+    SComplexity(int i, int i1, int window, boolean ellipticCurve) {
         this.pBitLength = i;
         this.qBitLength = i1;
+        this.fixedBaseWindow = window;
+        this.ellipticCurve = ellipticCurve;
     }
 
     public int getPBitLength() {
@@ -29,4 +48,12 @@ public enum SComplexity {
     public int getQBitLength() {
         return qBitLength;
     }
+
+    public int getFixedBaseWindow() {
+        return fixedBaseWindow;
+    }
+
+    public boolean isEllipticCurve() {
+        return ellipticCurve;
+    }
 }
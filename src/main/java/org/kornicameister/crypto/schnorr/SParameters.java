@@ -0,0 +1,175 @@
+package org.kornicameister.crypto.schnorr;
+
+import java.math.BigInteger;
+
+/**
+ * Catalog of the well-known parameters [p,q,a] of prime order subgroups,
+ * one default set per {@link SComplexity}, elliptic curve one included.
+ * Using any of them spares both {@link SAlgorithmPQA#generate(SComplexity)}
+ * and properties files.
+ * <p/>
+ * Numbers are parsed and {@link SAlgorithmPQA} is created on the first call
+ * to {@link SParameters#getPQA()}, which then returns that very object,
+ * so that its {@link org.kornicameister.crypto.utils.FixedBaseTable} is built once.
+ * Returned object is shared and must not be reloaded with
+ * {@link SAlgorithmPQA#fromProperties(String)}.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public enum SParameters {
+    /**
+     * RFC 5114, section 2.1: 1024-bit MODP group with 160-bit prime order subgroup.
+     */
+    RFC5114_1024_160(SComplexity.S_320,
+            "B10B8F96A080E01DDE92DE5EAE5D54EC52C99FBCFB06A3C69A6A9DCA52D23B61" +
+            "6073E28675A23D189838EF1E2EE652C013ECB4AEA906112324975C3CD49B83BF" +
+            "ACCBDD7D90C4BD7098488E9C219A73724EFFD6FAE5644738FAA31A4FF55BCCC0" +
+            "A151AF5F0DC8B4BD45BF37DF365C1A65E68CFDA76D4DA708DF1FB2BC2E4A4371",
+            "F518AA8781A8DF278ABA4E7D64B7CB9D49462353",
+            "A4D1CBD5C3FD34126765A442EFB99905F8104DD258AC507FD6406CFF14266D31" +
+            "266FEA1E5C41564B777E690F5504F213160217B4B01B886A5E91547F9E2749F4" +
+            "D7FBD7D3B9A92EE1909D0D2263F80A76A6A24C087A091F531DBF0A0169B6A28A" +
+            "D662A4D18E73AFA32D779D5918D08BC8858F4DCEF97C2A24855E6EEB22B3B2E5"),
+    /**
+     * RFC 5114, section 2.2: 2048-bit MODP group with 224-bit prime order subgroup.
+     */
+    RFC5114_2048_224(SComplexity.S_448,
+            "AD107E1E9123A9D0D660FAA79559C51FA20D64E5683B9FD1B54B1597B61D0A75" +
+            "E6FA141DF95A56DBAF9A3C407BA1DF15EB3D688A309C180E1DE6B85A1274A0A6" +
+            "6D3F8152AD6AC2129037C9EDEFDA4DF8D91E8FEF55B7394B7AD5B7D0B6C12207" +
+            "C9F98D11ED34DBF6C6BA0B2C8BBC27BE6A00E0A0B9C49708B3BF8A3170918836" +
+            "81286130BC8985DB1602E714415D9330278273C7DE31EFDC7310F7121FD5A074" +
+            "15987D9ADC0A486DCDF93ACC44328387315D75E198C641A480CD86A1B9E587E8" +
+            "BE60E69CC928B2B9C52172E413042E9B23F10B0E16E79763C9B53DCF4BA80A29" +
+            "E3FB73C16B8E75B97EF363E2FFA31F71CF9DE5384E71B81C0AC4DFFE0C10E64F",
+            "801C0D34C58D93FE997177101F80535A4738CEBCBF389A99B36371EB",
+            "AC4032EF4F2D9AE39DF30B5C8FFDAC506CDEBE7B89998CAF74866A08CFE4FFE3" +
+            "A6824A4E10B9A6F0DD921F01A70C4AFAAB739D7700C29F52C57DB17C620A8652" +
+            "BE5E9001A8D66AD7C17669101999024AF4D027275AC1348BB8A762D0521BC98A" +
+            "E247150422EA1ED409939D54DA7460CDB5F6C6B250717CBEF180EB34118E98D1" +
+            "19529A45D6F834566E3025E316A330EFBB77A86F0C1AB15B051AE3D428C8F8AC" +
+            "B70A8137150B8EEB10E183EDD19963DDD9E263E4770589EF6AA21E7F5F2FF381" +
+            "B539CCE3409D13CD566AFBB48D6C019181E1BCFE94B30269EDFE72FE9B6AA4BD" +
+            "7B5A0F1C71CFFF4C19C418E1F6EC017981BC087F2A7065B384B890D3191F2BFA"),
+    /**
+     * 3072-bit group with 256-bit prime order subgroup, generated as of FIPS 186-4 appendix A.1.1.2
+     * with SHA-256, <b>domain_parameter_seed</b> {@value #FIPS186_3072_256_SEED} and
+     * <b>counter</b> {@value #FIPS186_3072_256_COUNTER}, generator as of appendix A.2.3 with
+     * <b>index</b> {@value #FIPS186_3072_256_INDEX}. Seed is the first of
+     * <verb>SHA-256("JSchnorr FIPS186_3072_256" || k)</verb>, k = 0, 1, ... yielding prime q.
+     * Set is re-derived by the validation of appendices A.1.1.3 and A.2.4.
+     */
+    FIPS186_3072_256(SComplexity.S_512,
+            "9DD4BCECF35AC36C73287DE0B42C4B7F501ADE8CE8558FCB486F91A48BFE774C" +
+            "3831CF9E3EAD688C82D03E6E546FC0C6663B3E0D83184F288150E377C27F3F92" +
+            "20CBF5404EA9900FFBD7CBF5F13BE1688734F2D23855C8C6E631977BE6CA6EE6" +
+            "FF48FE80F37FEAD4013517088ADEAF573A6C10F4E6FEF080288D610203D570BB" +
+            "FDE847DD389ED70D03255BBCB825CBB33ADF685BEE48C40D8EADD810509FD5C9" +
+            "6C9A11C0F0D3AF1F08B3C9DF429BA8407DCFF5034AD9BCE33856E18E09B40B85" +
+            "D4A3AC9E0A80897CC543B04D4767CAE1F773FD5D22C142BC0DE70BE138C44D5D" +
+            "F7569266E1B799F4B31FF86538ABB701C2FE9ED365AE993F05F0771350B52AD7" +
+            "BF768F7ACCB11379028BF1FEE8CAA78C10D3637777A1B151989E6048A9653290" +
+            "9C2CAD69D89B02D657836B6FA2996CEF054202F05494EE2771C71A718762AE47" +
+            "A8612EEAD6FDD4C227187F84749BBBA684DAB11E226C21D351977B6151B451A0" +
+            "8303140150430DD5779CB0A68A9AD3ACF83464140E677B228EE64568B7748901",
+            "C24DDC9D06E7AF6A1F2189DCEEB879A04F4E24BEF3BBE684C5BDDE0DC3003ED1",
+            "47E6CE20942DC36FE0E2B548E87A0328BE58435E473809FB3CF85BA20E2D5D03" +
+            "05448D54C0265689CF092D2E9F7A62D604B5966B13701CF788F0FDD701E5C47C" +
+            "7C9CE3F5E5A1F85301DE9CF9E2F62B7A1EB6F75D73D74CDA34D0E6C0563AE46A" +
+            "35B5DACE748E0C8A011F0EF9D9A94602F5F4ABF2FFA08B6E22B205BC01BF79EF" +
+            "C68D4A2D4ABE372325C571EB8BC209F6DEEFE4EDD3B693843053FB043362D7A4" +
+            "E75FAED2CEDEF6A229460A25C6F8E1AA4A41F31B0ACB1BE038E8A8A017123B32" +
+            "23349654D1C6079B9C9F27F13FCD34847CC9C9A3EE7BBF80988B00F628143DDD" +
+            "A43BE14AD7912B8C651C10B74D65CCD8F735A9F6374C938D83422CEC91F48525" +
+            "8A937AFAD18A0567BE380E52BE2F45542B52DB1904E4530C701D95F8603C3A75" +
+            "47F6E7EDD50A7F04835C0A8E997DB8A9F6B867CFF041B9ED4FA33C14822FBAA4" +
+            "8FD8DBB7694E00FFE0B0254948DE5474896075A6C6CB1538E0D61B153F635F29" +
+            "F8C73820EEF419915BA1A2DE9F93F5B2C4E02A8984E6529030166ABEBB5DD1A5"),
+    /**
+     * NIST P-256, FIPS 186-4 D.1.2.3: field prime, order of the curve and compressed generator.
+     */
+    P_256(SComplexity.EC_P256,
+            "FFFFFFFF00000001000000000000000000000000FFFFFFFFFFFFFFFFFFFFFFFF",
+            "FFFFFFFF00000000FFFFFFFFFFFFFFFFBCE6FAADA7179E84F3B9CAC2FC632551",
+            "036B17D1F2E12C4247F8BCE6E563A440F277037D812DEB33A0F4A13945D898C296");
+
+    /**
+     * <b>domain_parameter_seed</b> of {@link #FIPS186_3072_256}.
+     */
+    static final String FIPS186_3072_256_SEED = "D1DCB367125B28DBE6A3DC69EB34CBBD34952274DBA8A45D931ECA82BB0A1543";
+    /**
+     * <b>counter</b> of {@link #FIPS186_3072_256}, p was found in this iteration.
+     */
+    static final int FIPS186_3072_256_COUNTER = 2766;
+    /**
+     * <b>index</b> of the generator of {@link #FIPS186_3072_256}.
+     */
+    static final int FIPS186_3072_256_INDEX = 1;
+    private static final int RADIX = 16;
+    private final SComplexity complexity;
+    private final String p;
+    private final String q;
+    private final String a;
+    private volatile SAlgorithmPQA pqa;
+
+    SParameters(SComplexity complexity, String p, String q, String a) {
+        this.complexity = complexity;
+        this.p = p;
+        this.q = q;
+        this.a = a;
+    }
+
+    /**
+     * @param name name of the set, case insensitive
+     * @return set of given name
+     * @throws IllegalArgumentException if there is no such set
+     */
+    public static SParameters forName(String name) {
+        for (SParameters parameters : values()) {
+            if (parameters.name().equalsIgnoreCase(name)) {
+                return parameters;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unknown parameters %s", name));
+    }
+
+    /**
+     * @param complexity complexity of the algorithm
+     * @return default set of given complexity
+     */
+    public static SParameters forComplexity(SComplexity complexity) {
+        for (SParameters parameters : values()) {
+            if (parameters.complexity == complexity) {
+                return parameters;
+            }
+        }
+        throw new IllegalArgumentException(String.format("No parameters of %s", complexity));
+    }
+
+    /**
+     * @return parameters of this set, created on the first call
+     */
+    public SAlgorithmPQA getPQA() {
+        SAlgorithmPQA pqa = this.pqa;
+        if (pqa == null) {
+            synchronized (this) {
+                pqa = this.pqa;
+                if (pqa == null) {
+                    pqa = SAlgorithmPQA.of(
+                            this.complexity,
+                            new BigInteger(this.p, RADIX),
+                            new BigInteger(this.q, RADIX),
+                            new BigInteger(this.a, RADIX)
+                    );
+                    this.pqa = pqa;
+                }
+            }
+        }
+        return pqa;
+    }
+
+    public SComplexity getComplexity() {
+        return complexity;
+    }
+}
@@ -1,5 +1,6 @@
 package org.kornicameister.crypto.schnorr;
 
+import org.apache.log4j.Logger;
 import org.kornicameister.crypto.sqlite.SQLiteController;
 import org.kornicameister.crypto.sqlite.annotations.Column;
 import org.kornicameister.crypto.sqlite.annotations.Id;
@@ -8,28 +9,46 @@ import org.kornicameister.crypto.sqlite.enums.ColumnType;
 
 import java.math.BigInteger;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Class represents data model that is to be persisted
  * to database...Keys are huge numbers so it would
  * be enough to persist them in some sort of binary file,
  * but Mongo...I wanted to try it ;-)
+ * <p/>
+ * Signature refers to the {@link SchnorrKeyPair} it was made with
+ * by <b>signer_id</b>, keys themselves are not repeated per signature.
+ * Signatures of the <b>schnorr3</b> table, which held the keys in every row,
+ * are moved over by {@link SchnorrCryptoKey#migrateLegacy(SQLiteController)}.
  *
  * @author kornicameister
  * @since 0.0.1
  */
 
-@Table(name = "schnorr3")
+@Table(name = "schnorr4")
 public class SchnorrCryptoKey {
+    private final static Logger LOGGER = Logger.getLogger(SchnorrCryptoKey.class);
+    private final static String LEGACY_TABLE = "schnorr3";
+    private final static List<String> LEGACY_MIGRATION = Arrays.asList(
+            "create index if not exists schnorr_signer_keys on schnorr_signer ( pub_key )",
+            "insert into schnorr_signer ( pub_key,priv_key ) select distinct pub_key,priv_key from schnorr3",
+            "insert into schnorr4 ( id,signer_id,e_factor,y_factor ) select l.id,"
+                    + "(select max(s.id) from schnorr_signer s where s.pub_key = l.pub_key and s.priv_key is l.priv_key),"
+                    + "l.e_factor,l.y_factor from schnorr3 l",
+            "drop table schnorr3",
+            "drop index schnorr_signer_keys"
+    );
 
     @Id(column = @Column(name = "id", type = ColumnType.INTEGER))
     protected Integer primaryKey;
 
-    @Column(name = "pub_key", type = ColumnType.BIG_INTEGER)
-    private BigInteger publicKey;
-
-    @Column(name = "priv_key", type = ColumnType.BIG_INTEGER)
-    private BigInteger privateKey;
+    @Column(name = "signer_id", type = ColumnType.INTEGER)
+    private Integer signerId;
 
     @Column(name = "e_factor", type = ColumnType.BIG_INTEGER)
     private BigInteger cryptoEPart;
@@ -49,20 +68,12 @@ public class SchnorrCryptoKey {
         this.primaryKey = primaryKey;
     }
 
-    public BigInteger getPublicKey() {
-        return publicKey;
-    }
-
-    public void setPublicKey(BigInteger publicKey) {
-        this.publicKey = publicKey;
+    public Integer getSignerId() {
+        return signerId;
     }
 
-    public BigInteger getPrivateKey() {
-        return privateKey;
-    }
-
-    public void setPrivateKey(BigInteger privateKey) {
-        this.privateKey = privateKey;
+    public void setSignerId(Integer signerId) {
+        this.signerId = signerId;
     }
 
     public BigInteger getCryptoEPart() {
@@ -81,15 +92,55 @@ public class SchnorrCryptoKey {
         this.cryptoYPart = cryptoYPart;
     }
 
+    /**
+     * Moves signatures of the legacy <b>schnorr3</b> table, if there is one, to <b>schnorr4</b>.
+     * Key pair of every legacy row is saved as {@link SchnorrKeyPair} and ids of the signatures
+     * are kept, so that they are verified as before. Everything is done within single
+     * transaction and the legacy table is dropped afterwards.
+     *
+     * @param controller database bridge
+     * @return true if legacy signatures were migrated
+     * @throws SQLException if migration failed, database is left untouched then
+     */
+    public static boolean migrateLegacy(SQLiteController controller) throws SQLException {
+        if (!controller.hasTable(LEGACY_TABLE)) {
+            return false;
+        }
+        controller.createTable(SchnorrKeyPair.class);
+        controller.createTable(SchnorrCryptoKey.class);
+        controller.executeInTransaction(LEGACY_MIGRATION);
+        LOGGER.info(String.format("Migrated signatures of %s", LEGACY_TABLE));
+        return true;
+    }
+
     public static Integer addSchnorrKey(SchnorrCryptoKey data,
                                         SQLiteController controller) throws SQLException {
         return controller.saveObject(data);
     }
 
+    /**
+     * Saves many keys within single transaction.
+     *
+     * @return ids of the keys, in order of data
+     */
+    public static List<Integer> addSchnorrKeys(List<SchnorrCryptoKey> data,
+                                               SQLiteController controller) throws SQLException {
+        return controller.saveObjects(data);
+    }
+
     public static SchnorrCryptoKey getSchnorrKey(Integer id, SQLiteController controller) throws SQLException {
         return (SchnorrCryptoKey) controller.getObject(id, SchnorrCryptoKey.class);
     }
 
+    public static Map<Integer, SchnorrCryptoKey> getSchnorrKeys(Collection<Integer> ids,
+                                                                SQLiteController controller) throws SQLException {
+        Map<Integer, SchnorrCryptoKey> keys = new HashMap<>();
+        for (Map.Entry<Integer, Object> entry : controller.getObjects(ids, SchnorrCryptoKey.class).entrySet()) {
+            keys.put(entry.getKey(), (SchnorrCryptoKey) entry.getValue());
+        }
+        return keys;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -100,15 +151,13 @@ public class SchnorrCryptoKey {
         return cryptoEPart.equals(cryptoKey.cryptoEPart)
                 && cryptoYPart.equals(cryptoKey.cryptoYPart)
                 && !(primaryKey != null ? !primaryKey.equals(cryptoKey.primaryKey) : cryptoKey.primaryKey != null)
-                && privateKey.equals(cryptoKey.privateKey)
-                && publicKey.equals(cryptoKey.publicKey);
+                && signerId.equals(cryptoKey.signerId);
     }
 
     @Override
     public int hashCode() {
         int result = primaryKey != null ? primaryKey.hashCode() : 0;
-        result = 31 * result + publicKey.hashCode();
-        result = 31 * result + privateKey.hashCode();
+        result = 31 * result + signerId.hashCode();
         result = 31 * result + cryptoEPart.hashCode();
         result = 31 * result + cryptoYPart.hashCode();
         return result;
@@ -118,9 +167,8 @@ public class SchnorrCryptoKey {
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("SchnorrCryptoKey{");
-        sb.append("publicKey=").append(publicKey);
-        sb.append(", privateKey=").append(privateKey);
-        sb.append(", primaryKey=").append(primaryKey);
+        sb.append("primaryKey=").append(primaryKey);
+        sb.append(", signerId=").append(signerId);
         sb.append(", cryptoYPart=").append(cryptoYPart);
         sb.append(", cryptoEPart=").append(cryptoEPart);
         sb.append('}');
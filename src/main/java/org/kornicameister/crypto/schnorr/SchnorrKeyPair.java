@@ -0,0 +1,95 @@
+package org.kornicameister.crypto.schnorr;
+
+import org.kornicameister.crypto.sqlite.annotations.Column;
+import org.kornicameister.crypto.sqlite.annotations.Id;
+import org.kornicameister.crypto.sqlite.annotations.Table;
+import org.kornicameister.crypto.sqlite.enums.ColumnType;
+
+import java.math.BigInteger;
+
+/**
+ * Key pair of the signer. Pair is generated once, see {@link SAlgorithm#generateKeyPair()},
+ * and is used to sign any number of messages. Every {@link SchnorrCryptoKey}
+ * refers to the pair it was signed with by <b>signer_id</b>.
+ * <ul>
+ * <li>Private key - randomly chosen number less than q</li>
+ * <li>Public key - <pre>pub_key = (a ^ -priv_key) mod p</pre></li>
+ * </ul>
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+@Table(name = "schnorr_signer")
+public class SchnorrKeyPair {
+
+    @Id(column = @Column(name = "id", type = ColumnType.INTEGER))
+    protected Integer primaryKey;
+
+    @Column(name = "pub_key", type = ColumnType.BIG_INTEGER)
+    private BigInteger publicKey;
+
+    @Column(name = "priv_key", type = ColumnType.BIG_INTEGER)
+    private BigInteger privateKey;
+
+    public SchnorrKeyPair() {
+
+    }
+
+    public SchnorrKeyPair(BigInteger publicKey, BigInteger privateKey) {
+        this.publicKey = publicKey;
+        this.privateKey = privateKey;
+    }
+
+    public Integer getPrimaryKey() {
+        return primaryKey;
+    }
+
+    public void setPrimaryKey(Integer primaryKey) {
+        this.primaryKey = primaryKey;
+    }
+
+    public BigInteger getPublicKey() {
+        return publicKey;
+    }
+
+    public void setPublicKey(BigInteger publicKey) {
+        this.publicKey = publicKey;
+    }
+
+    public BigInteger getPrivateKey() {
+        return privateKey;
+    }
+
+    public void setPrivateKey(BigInteger privateKey) {
+        this.privateKey = privateKey;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof SchnorrKeyPair)) return false;
+
+        SchnorrKeyPair keyPair = (SchnorrKeyPair) o;
+
+        return !(primaryKey != null ? !primaryKey.equals(keyPair.primaryKey) : keyPair.primaryKey != null)
+                && privateKey.equals(keyPair.privateKey)
+                && publicKey.equals(keyPair.publicKey);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = primaryKey != null ? primaryKey.hashCode() : 0;
+        result = 31 * result + publicKey.hashCode();
+        result = 31 * result + privateKey.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SchnorrKeyPair{");
+        sb.append("primaryKey=").append(primaryKey);
+        sb.append(", publicKey=").append(publicKey);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package org.kornicameister.crypto.schnorr;
+
+import org.kornicameister.crypto.sqlite.SQLiteController;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the {@link SchnorrKeyPair} known to the application.
+ * Key pairs are persisted by {@link SQLiteController} and loaded
+ * once, afterwards they are served from memory.
+ * <p/>
+ * Registry is safe for concurrent use.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class SchnorrKeyRegistry {
+    private final SQLiteController controller;
+    private final ConcurrentMap<Integer, SchnorrKeyPair> keyPairs;
+
+    public SchnorrKeyRegistry(SQLiteController controller) {
+        this.controller = controller;
+        this.keyPairs = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Persists new key pair and registers it.
+     *
+     * @param keyPair key pair without primary key
+     * @return id of the key pair, also set as its primary key
+     * @throws SQLException
+     */
+    public Integer addKeyPair(SchnorrKeyPair keyPair) throws SQLException {
+        Integer id = this.controller.saveObject(keyPair);
+        keyPair.setPrimaryKey(id);
+        this.keyPairs.put(id, keyPair);
+        return id;
+    }
+
+    /**
+     * @param id id of the key pair
+     * @return registered key pair, loaded from database if not known yet, null if there is none
+     * @throws SQLException
+     */
+    public SchnorrKeyPair getKeyPair(Integer id) throws SQLException {
+        SchnorrKeyPair keyPair = this.keyPairs.get(id);
+        if (keyPair == null) {
+            keyPair = (SchnorrKeyPair) this.controller.getObject(id, SchnorrKeyPair.class);
+            if (keyPair == null) {
+                return null;
+            }
+            SchnorrKeyPair existing = this.keyPairs.putIfAbsent(id, keyPair);
+            keyPair = existing != null ? existing : keyPair;
+        }
+        return keyPair;
+    }
+
+    /**
+     * Loads many key pairs at once, pairs not known yet are loaded with single database pass.
+     *
+     * @param ids ids of the key pairs
+     * @return map of id to key pair, ids not present in database are missing
+     * @throws SQLException
+     */
+    public Map<Integer, SchnorrKeyPair> getKeyPairs(Collection<Integer> ids) throws SQLException {
+        Map<Integer, SchnorrKeyPair> result = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            SchnorrKeyPair keyPair = this.keyPairs.get(id);
+            if (keyPair != null) {
+                result.put(id, keyPair);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (Map.Entry<Integer, Object> entry : this.controller.getObjects(missing, SchnorrKeyPair.class).entrySet()) {
+                SchnorrKeyPair keyPair = (SchnorrKeyPair) entry.getValue();
+                SchnorrKeyPair existing = this.keyPairs.putIfAbsent(entry.getKey(), keyPair);
+                result.put(entry.getKey(), existing != null ? existing : keyPair);
+            }
+        }
+        return result;
+    }
+
+    public int size() {
+        return this.keyPairs.size();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SchnorrKeyRegistry{");
+        sb.append("size=").append(keyPairs.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,212 @@
+package org.kornicameister.crypto.schnorr.audit;
+
+import org.apache.log4j.Logger;
+import org.kornicameister.crypto.schnorr.SAlgorithm;
+import org.kornicameister.crypto.schnorr.SchnorrCryptoKey;
+import org.kornicameister.crypto.schnorr.store.KeyCursor;
+import org.kornicameister.crypto.utils.TimeUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-verifies every stored signature against its archived message.
+ * <p/>
+ * Signatures are walked through by {@link KeyCursor} in order of ids, page by page,
+ * and handed over to the pool of workers by the bounded queue. Reading waits whenever
+ * workers fall behind, hence only the page and the queue are ever held in memory,
+ * whatever the amount of signatures is.
+ * <h3>Checkpoint</h3>
+ * Workers finish records out of order, so the checkpoint is the id preceding
+ * the lowest record still being checked, that is every record up to it is done.
+ * It is written to the checkpoint file every {@value #CHECKPOINT_INTERVAL} records
+ * and at the end of the run. Next run resumes after it, records checked after the
+ * last checkpoint are checked again.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class AuditJob {
+    private final static Logger LOGGER = Logger.getLogger(AuditJob.class);
+    private static final int CHECKPOINT_INTERVAL = 10000;
+    private static final int QUEUE_PER_WORKER = 64;
+    private static final SchnorrCryptoKey END = new SchnorrCryptoKey();
+    private final SAlgorithm algorithm;
+    private final MessageSource messages;
+    private final Path checkpointFile;
+    private final int workers;
+    private final TreeSet<Integer> inFlight;
+    private Integer lastSubmitted;
+    private long processed;
+    private Integer writtenId;
+
+    /**
+     * @param algorithm      algorithm the signatures were made with, they are read from its store
+     * @param messages       archive of the signed messages
+     * @param checkpointFile file the progress is kept in, null to always start from the beginning
+     * @param workers        amount of verifying threads
+     */
+    public AuditJob(SAlgorithm algorithm, MessageSource messages, Path checkpointFile, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException(String.format("Invalid amount of workers %d", workers));
+        }
+        this.algorithm = algorithm;
+        this.messages = messages;
+        this.checkpointFile = checkpointFile;
+        this.workers = workers;
+        this.inFlight = new TreeSet<>();
+    }
+
+    /**
+     * Runs the audit, resuming after the checkpoint if there is one.
+     *
+     * @return report of the run
+     * @throws SQLException         if signatures could not be read, checkpoint is written nonetheless
+     * @throws IOException          if checkpoint could not be read or written
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public AuditReport run() throws SQLException, IOException, InterruptedException {
+        long startTime = System.nanoTime();
+        Integer startId = this.readCheckpoint();
+        final AuditReport report = new AuditReport(startId);
+        final BlockingQueue<SchnorrCryptoKey> queue = new ArrayBlockingQueue<>(this.workers * QUEUE_PER_WORKER);
+        this.lastSubmitted = startId;
+        this.processed = 0;
+        this.writtenId = startId;
+
+        LOGGER.info(String.format("Audit started after id=%d, workers=%d", startId, this.workers));
+
+        ExecutorService executor = Executors.newFixedThreadPool(this.workers);
+        for (int i = 0; i < this.workers; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    check(queue, report);
+                }
+            });
+        }
+        try {
+            KeyCursor cursor = new KeyCursor(this.algorithm.getKeyStore(), startId, KeyCursor.DEFAULT_PAGE_SIZE);
+            SchnorrCryptoKey cryptoKey;
+            while ((cryptoKey = cursor.next()) != null) {
+                synchronized (this.inFlight) {
+                    this.inFlight.add(cryptoKey.getPrimaryKey());
+                    this.lastSubmitted = cryptoKey.getPrimaryKey();
+                }
+                queue.put(cryptoKey);
+            }
+        } finally {
+            for (int i = 0; i < this.workers; i++) {
+                queue.put(END);
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.info(String.format("Waiting for the workers, queue=%d", queue.size()));
+            }
+            Integer checkpointId = this.getCheckpointId();
+            this.writeCheckpoint(checkpointId);
+            report.finish(checkpointId, System.nanoTime() - startTime);
+
+            LOGGER.info(String.format("Audit finished, report=%s, time=%d",
+                    report, TimeUtils.elapsedFromTime(startTime)));
+        }
+        return report;
+    }
+
+    private void check(BlockingQueue<SchnorrCryptoKey> queue, AuditReport report) {
+        try {
+            SchnorrCryptoKey cryptoKey;
+            while ((cryptoKey = queue.take()) != END) {
+                Integer recordId = cryptoKey.getPrimaryKey();
+                try {
+                    String message = this.messages.getMessage(recordId);
+                    if (message == null) {
+                        report.addMissing();
+                    } else if (this.algorithm.verify(message, cryptoKey)) {
+                        report.addVerified();
+                    } else {
+                        report.addFailed(recordId);
+                    }
+                } catch (Exception e) {
+                    LOGGER.warn(String.format("Failed to check record %d", recordId), e);
+                    report.addError(recordId);
+                }
+                this.done(recordId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void done(Integer recordId) {
+        Integer checkpointId = null;
+        long processed;
+        synchronized (this.inFlight) {
+            this.inFlight.remove(recordId);
+            processed = ++this.processed;
+            if (processed % CHECKPOINT_INTERVAL == 0) {
+                checkpointId = this.getCheckpointId();
+            }
+        }
+        if (checkpointId != null) {
+            try {
+                this.writeCheckpoint(checkpointId);
+                LOGGER.info(String.format("Audit checkpoint id=%d, processed=%d", checkpointId, processed));
+            } catch (IOException e) {
+                LOGGER.warn(String.format("Failed to write checkpoint id=%d", checkpointId), e);
+            }
+        }
+    }
+
+    private Integer getCheckpointId() {
+        synchronized (this.inFlight) {
+            return this.inFlight.isEmpty() ? this.lastSubmitted : this.inFlight.first() - 1;
+        }
+    }
+
+    private Integer readCheckpoint() throws IOException {
+        if (this.checkpointFile == null || !Files.exists(this.checkpointFile)) {
+            return 0;
+        }
+        String content = new String(Files.readAllBytes(this.checkpointFile), StandardCharsets.US_ASCII).trim();
+        try {
+            return Integer.valueOf(content);
+        } catch (NumberFormatException e) {
+            throw new IOException(String.format("Invalid checkpoint %s in %s", content, this.checkpointFile), e);
+        }
+    }
+
+    /**
+     * Checkpoint is written aside and moved over the previous one, so that it is never partially written.
+     * Checkpoints of the workers may arrive out of order, the ones behind the written one are skipped.
+     */
+    private synchronized void writeCheckpoint(Integer checkpointId) throws IOException {
+        if (this.checkpointFile == null || checkpointId < this.writtenId) {
+            return;
+        }
+        this.writtenId = checkpointId;
+        Path temporary = this.checkpointFile.resolveSibling(this.checkpointFile.getFileName() + ".tmp");
+        Files.write(temporary, Collections.singletonList(String.valueOf(checkpointId)), StandardCharsets.US_ASCII);
+        Files.move(temporary, this.checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("AuditJob{");
+        sb.append("checkpointFile=").append(checkpointFile);
+        sb.append(", workers=").append(workers);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,141 @@
+package org.kornicameister.crypto.schnorr.audit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of the {@link AuditJob} run.
+ * <ul>
+ * <li>verified - signatures found correct</li>
+ * <li>failed - signatures not matching the archived message</li>
+ * <li>missing - signatures whose message is not archived</li>
+ * <li>errors - signatures that could not be checked, i.e. message could not be read</li>
+ * </ul>
+ * Ids of the failed and erroneous records are kept, up to {@value #MAX_FAILED_IDS} of them.
+ * <p/>
+ * Report is filled by many workers at once, hence all updates are synchronized.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class AuditReport {
+    public static final int MAX_FAILED_IDS = 1000;
+    private final Integer startId;
+    private final List<Integer> failedIds;
+    private Integer checkpointId;
+    private long verified;
+    private long failed;
+    private long missing;
+    private long errors;
+    private long elapsed;
+
+    AuditReport(Integer startId) {
+        this.startId = startId;
+        this.checkpointId = startId;
+        this.failedIds = new ArrayList<>();
+    }
+
+    synchronized void addVerified() {
+        this.verified++;
+    }
+
+    synchronized void addFailed(Integer recordId) {
+        this.failed++;
+        this.addFailedId(recordId);
+    }
+
+    synchronized void addMissing() {
+        this.missing++;
+    }
+
+    synchronized void addError(Integer recordId) {
+        this.errors++;
+        this.addFailedId(recordId);
+    }
+
+    private void addFailedId(Integer recordId) {
+        if (this.failedIds.size() < MAX_FAILED_IDS) {
+            this.failedIds.add(recordId);
+        }
+    }
+
+    synchronized void finish(Integer checkpointId, long elapsed) {
+        this.checkpointId = checkpointId;
+        this.elapsed = elapsed;
+    }
+
+    /**
+     * @return id the run has resumed after
+     */
+    public Integer getStartId() {
+        return startId;
+    }
+
+    /**
+     * @return id the next run resumes after, every record up to it was checked
+     */
+    public synchronized Integer getCheckpointId() {
+        return checkpointId;
+    }
+
+    public synchronized long getVerified() {
+        return verified;
+    }
+
+    public synchronized long getFailed() {
+        return failed;
+    }
+
+    public synchronized long getMissing() {
+        return missing;
+    }
+
+    public synchronized long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return amount of records checked
+     */
+    public synchronized long getProcessed() {
+        return this.verified + this.failed + this.missing + this.errors;
+    }
+
+    /**
+     * @return ids of failed and erroneous records, sorted
+     */
+    public synchronized List<Integer> getFailedIds() {
+        List<Integer> ids = new ArrayList<>(this.failedIds);
+        Collections.sort(ids);
+        return ids;
+    }
+
+    /**
+     * @return time of the run in nanoseconds
+     */
+    public synchronized long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return records checked per second
+     */
+    public synchronized double getThroughput() {
+        return this.elapsed > 0 ? this.getProcessed() * 1e9 / this.elapsed : 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        final StringBuilder sb = new StringBuilder("AuditReport{");
+        sb.append("startId=").append(startId);
+        sb.append(", checkpointId=").append(checkpointId);
+        sb.append(", verified=").append(verified);
+        sb.append(", failed=").append(failed);
+        sb.append(", missing=").append(missing);
+        sb.append(", errors=").append(errors);
+        sb.append(", throughput=").append(String.format("%.1f/s", this.getThroughput()));
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,20 @@
+package org.kornicameister.crypto.schnorr.audit;
+
+import java.io.IOException;
+
+/**
+ * Archive of the signed messages, read by {@link AuditJob}.
+ * Source is used by many threads at once.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public interface MessageSource {
+
+    /**
+     * @param recordId id of the record holding the signature of the message
+     * @return archived message or null if it is not archived
+     * @throws IOException if message could not be read
+     */
+    String getMessage(Integer recordId) throws IOException;
+}
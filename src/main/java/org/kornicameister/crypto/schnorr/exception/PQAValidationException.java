@@ -0,0 +1,18 @@
+package org.kornicameister.crypto.schnorr.exception;
+
+/**
+ * Exception is thrown if the entry parameters (p,q,a) failed any of the checks
+ * made by {@link org.kornicameister.crypto.schnorr.PQAValidator}.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class PQAValidationException extends RuntimeException {
+    public PQAValidationException(String s) {
+        super(s);
+    }
+
+    public PQAValidationException(String s, Throwable cause) {
+        super(s, cause);
+    }
+}
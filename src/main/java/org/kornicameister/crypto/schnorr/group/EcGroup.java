@@ -0,0 +1,145 @@
+package org.kornicameister.crypto.schnorr.group;
+
+import org.kornicameister.crypto.utils.EcFixedBaseTable;
+import org.kornicameister.crypto.utils.EllipticCurve;
+import org.kornicameister.crypto.utils.FixedBasePower;
+
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group of points of the prime order {@link EllipticCurve}, written additively:
+ * <verb>a^k</verb> is <verb>k * G</verb> and <verb>a^y * v^e</verb> is <verb>y * G + e * V</verb>.
+ * Points are encoded compressed, see {@link EllipticCurve#encode(EllipticCurve.Point)},
+ * hence commitment hashed into e is 33 bytes for P-256, whereas y is 32 bytes.
+ * <p/>
+ * Multiples of the generator are taken from {@link EcFixedBaseTable}. Public keys seen
+ * {@value #HOT_THRESHOLD} times get their own tables, so that verifying with the signers'
+ * keys needs no doubling at all. Table costs as much as about 7 multiplications it saves,
+ * hence the threshold. At most {@value #MAX_PUBLIC_KEY_TABLES} tables are kept, evicted
+ * in LRU order. Other keys are decompressed and multiplied with fixed windows.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class EcGroup implements SchnorrGroup {
+    private static final int PUBLIC_KEY_WINDOW = 4;
+    private static final int HOT_THRESHOLD = 8;
+    private static final int MAX_PUBLIC_KEY_TABLES = 64;
+    private static final int MAX_COUNTERS = 16384;
+    private final EllipticCurve curve;
+    private final EcFixedBaseTable generator;
+    private final Map<BigInteger, EcFixedBaseTable> publicKeyTables;
+    private final ConcurrentMap<BigInteger, AtomicInteger> counters;
+
+    /**
+     * @param curve  curve of prime order
+     * @param window window width of the generator's table
+     */
+    public EcGroup(EllipticCurve curve, int window) {
+        this.curve = curve;
+        this.generator = new EcFixedBaseTable(curve, curve.getGenerator(), curve.getN().bitLength(), window);
+        this.publicKeyTables = new PublicKeyTables();
+        this.counters = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public BigInteger getOrder() {
+        return this.curve.getN();
+    }
+
+    @Override
+    public FixedBasePower getGenerator() {
+        return this.generator;
+    }
+
+    /**
+     * Public key is <verb>V = -s * G = (n - s) * G</verb>.
+     */
+    @Override
+    public BigInteger publicKey(BigInteger privateKey) {
+        return this.generator.pow(this.curve.getN().subtract(privateKey.mod(this.curve.getN())));
+    }
+
+    /**
+     * @throws IllegalArgumentException if public key is not a point of the curve
+     */
+    @Override
+    public BigInteger combine(BigInteger y, BigInteger publicKey, BigInteger e) {
+        BigInteger n = this.curve.getN();
+        e = e.mod(n);
+        EllipticCurve.Point eV;
+        EcFixedBaseTable table = this.getPublicKeyTable(publicKey);
+        if (table != null) {
+            eV = table.multiply(e);
+        } else {
+            eV = this.curve.multiply(this.curve.decode(publicKey), e);
+        }
+        return this.curve.encode(this.curve.add(this.generator.multiply(y.mod(n)), eV));
+    }
+
+    /**
+     * Building the table happens outside of the lock.
+     */
+    private EcFixedBaseTable getPublicKeyTable(BigInteger publicKey) {
+        EcFixedBaseTable table;
+        synchronized (this.publicKeyTables) {
+            table = this.publicKeyTables.get(publicKey);
+        }
+        if (table != null) {
+            return table;
+        }
+        AtomicInteger counter = this.counters.get(publicKey);
+        if (counter == null) {
+            if (this.counters.size() >= MAX_COUNTERS) {
+                this.counters.clear();
+            }
+            AtomicInteger existing = this.counters.putIfAbsent(publicKey, counter = new AtomicInteger());
+            counter = existing != null ? existing : counter;
+        }
+        if (counter.incrementAndGet() != HOT_THRESHOLD) {
+            return null;
+        }
+        this.counters.remove(publicKey, counter);
+
+        table = new EcFixedBaseTable(this.curve, this.curve.decode(publicKey), this.curve.getN().bitLength(),
+                PUBLIC_KEY_WINDOW);
+        synchronized (this.publicKeyTables) {
+            this.publicKeyTables.put(publicKey, table);
+        }
+        return table;
+    }
+
+    public EllipticCurve getCurve() {
+        return curve;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("EcGroup{");
+        sb.append("curve=").append(curve);
+        sb.append(", generator=").append(generator);
+        synchronized (this.publicKeyTables) {
+            sb.append(", publicKeyTables=").append(publicKeyTables.size());
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static final class PublicKeyTables extends LinkedHashMap<BigInteger, EcFixedBaseTable> {
+        private static final long serialVersionUID = 1L;
+
+        PublicKeyTables() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<BigInteger, EcFixedBaseTable> eldest) {
+            return this.size() > MAX_PUBLIC_KEY_TABLES;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.kornicameister.crypto.schnorr.group;
+
+import org.kornicameister.crypto.utils.FixedBasePower;
+import org.kornicameister.crypto.utils.FixedBaseTable;
+
+import java.math.BigInteger;
+
+/**
+ * Subgroup of order q of the multiplicative group modulo prime p,
+ * as defined by {@link org.kornicameister.crypto.schnorr.SAlgorithmPQA}.
+ * Elements are residues modulo p, encoded as they are.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class ModPGroup implements SchnorrGroup {
+    private final FixedBaseTable table;
+    private final BigInteger order;
+
+    /**
+     * @param table fixed base table of the generator a
+     * @param order order q of a
+     */
+    public ModPGroup(FixedBaseTable table, BigInteger order) {
+        this.table = table;
+        this.order = order;
+    }
+
+    @Override
+    public BigInteger getOrder() {
+        return order;
+    }
+
+    @Override
+    public FixedBasePower getGenerator() {
+        return table;
+    }
+
+    /**
+     * Public key is <verb>v = a^-s = a^(q-s) mod p</verb>.
+     */
+    @Override
+    public BigInteger publicKey(BigInteger privateKey) {
+        return this.table.pow(this.order.subtract(privateKey.mod(this.order)));
+    }
+
+    /**
+     * Computes both powers with single simultaneous exponentiation. As v is the power of a,
+     * its order is q as well, so e (which is full length hash) is reduced modulo q before.
+     */
+    @Override
+    public BigInteger combine(BigInteger y, BigInteger publicKey, BigInteger e) {
+        return this.table.getContext().powDual(this.table.getBase(), y, publicKey, e.mod(this.order));
+    }
+
+    public FixedBaseTable getTable() {
+        return table;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("ModPGroup{");
+        sb.append("pBits=").append(table.getModulus().bitLength());
+        sb.append(", qBits=").append(order.bitLength());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,48 @@
+package org.kornicameister.crypto.schnorr.group;
+
+import org.kornicameister.crypto.utils.FixedBasePower;
+
+import java.math.BigInteger;
+
+/**
+ * Prime order group {@link org.kornicameister.crypto.schnorr.SAlgorithm} signs in,
+ * written multiplicatively with generator <b>a</b> and order <b>q</b>.
+ * Elements (commitments and public keys) leave the group encoded as numbers,
+ * so that they are hashed and persisted the same way whatever the group is.
+ * Scalars (private keys, nonces and signatures) are numbers modulo q.
+ * <p/>
+ * Implementations are immutable and safe for concurrent use.
+ *
+ * @author kornicameister
+ * @see ModPGroup
+ * @see EcGroup
+ * @since 0.0.2
+ */
+public interface SchnorrGroup {
+
+    /**
+     * @return order q of the group
+     */
+    BigInteger getOrder();
+
+    /**
+     * @return powers of the generator, <verb>a^k</verb> being the commitment of nonce k
+     */
+    FixedBasePower getGenerator();
+
+    /**
+     * @param privateKey private key s
+     * @return encoded public key <verb>v = a^-s</verb>
+     */
+    BigInteger publicKey(BigInteger privateKey);
+
+    /**
+     * Computes the commitment signature is checked against.
+     *
+     * @param y         signature's y, reduced modulo q
+     * @param publicKey encoded public key v
+     * @param e         signature's e, of any length
+     * @return encoded <verb>a^y * v^e</verb>
+     */
+    BigInteger combine(BigInteger y, BigInteger publicKey, BigInteger e);
+}
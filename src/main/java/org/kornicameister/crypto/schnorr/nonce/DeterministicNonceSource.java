@@ -0,0 +1,92 @@
+package org.kornicameister.crypto.schnorr.nonce;
+
+import java.math.BigInteger;
+
+/**
+ * Source deriving the nonce from the private key and the digest of the message,
+ * as described by RFC 6979 (section 3.2), with {@link HmacDrbg} over HMAC-SHA512.
+ * Signing needs no fresh randomness then, and the same message signed twice
+ * by the same signer gets the same nonce, so nonce can never be reused for
+ * different messages.
+ * <p/>
+ * Private keys are still random, they come from the given random source.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class DeterministicNonceSource implements NonceSource {
+    private static final byte[] EMPTY = new byte[0];
+    private final String algorithm;
+    private final NonceSource random;
+
+    public DeterministicNonceSource() {
+        this(HmacDrbg.HMAC_SHA_512, new DrbgNonceSource());
+    }
+
+    /**
+     * @param algorithm name of the HMAC, should match the digest the nonce is derived from
+     * @param random    source of the private keys
+     */
+    public DeterministicNonceSource(String algorithm, NonceSource random) {
+        this.algorithm = algorithm;
+        this.random = random;
+    }
+
+    @Override
+    public BigInteger nextRandom(int bits) {
+        return this.random.nextRandom(bits);
+    }
+
+    /**
+     * @return nonce in [1, q - 1], bits are not used
+     */
+    @Override
+    public BigInteger nextNonce(int bits, BigInteger q, BigInteger privateKey, byte[] digest) {
+        int qLength = q.bitLength();
+        int rLength = (qLength + 7) / 8;
+        byte[] seed = new byte[2 * rLength];
+        toOctets(privateKey.mod(q), seed, 0, rLength);
+        toOctets(toInt(digest, qLength).mod(q), seed, rLength, rLength);
+
+        HmacDrbg generator = new HmacDrbg(this.algorithm, seed, EMPTY, EMPTY);
+        byte[] candidate = new byte[rLength];
+        while (true) {
+            generator.generate(candidate);
+            BigInteger k = toInt(candidate, qLength);
+            if (k.signum() > 0 && k.compareTo(q) < 0) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * bits2int of RFC 6979, leftmost qLength bits of the input.
+     */
+    private static BigInteger toInt(byte[] bits, int qLength) {
+        BigInteger value = new BigInteger(1, bits);
+        int excess = bits.length * 8 - qLength;
+        return excess > 0 ? value.shiftRight(excess) : value;
+    }
+
+    /**
+     * int2octets of RFC 6979, big-endian value of exactly length bytes.
+     */
+    private static void toOctets(BigInteger value, byte[] output, int offset, int length) {
+        byte[] bytes = value.toByteArray();
+        int skip = Math.max(0, bytes.length - length);
+        System.arraycopy(bytes, skip, output, offset + length - (bytes.length - skip), bytes.length - skip);
+    }
+
+    @Override
+    public boolean isDeterministic() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DeterministicNonceSource{");
+        sb.append("algorithm=").append(algorithm);
+        sb.append('}');
+        return sb.toString();
+    }
+}
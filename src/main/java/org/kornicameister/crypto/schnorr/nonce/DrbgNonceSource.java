@@ -0,0 +1,107 @@
+package org.kornicameister.crypto.schnorr.nonce;
+
+import org.apache.log4j.Logger;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Random source keeping separate {@link HmacDrbg} per thread, so that signing
+ * threads never contend for the generator. Generators are seeded (and reseeded every
+ * {@value #RESEED_INTERVAL} calls) from the non-blocking source of the operating system,
+ * hence slow entropy pool affects only seeding, never the signing itself.
+ * Each generator produces {@value #BUFFER_BYTES} bytes at once and serves
+ * the following requests from them, so that its state update is paid once for many nonces.
+ * <p/>
+ * Nonces are random, the private key and the message are not used.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class DrbgNonceSource implements NonceSource {
+    private final static Logger LOGGER = Logger.getLogger(DrbgNonceSource.class);
+    private static final long RESEED_INTERVAL = 1 << 16;
+    private static final int SEED_BYTES = 48;
+    private static final int BUFFER_BYTES = 1024;
+    private static final byte[] PERSONALIZATION = "JSchnorr nonce".getBytes(StandardCharsets.US_ASCII);
+    private final SecureRandom seeder;
+    private final ThreadLocal<Generator> generators;
+
+    public DrbgNonceSource() {
+        this.seeder = new SecureRandom();
+        this.generators = new ThreadLocal<Generator>() {
+            @Override
+            protected Generator initialValue() {
+                Thread thread = Thread.currentThread();
+                byte[] nonce = ByteBuffer.allocate(16).putLong(thread.getId()).putLong(System.nanoTime()).array();
+                HmacDrbg drbg = new HmacDrbg(HmacDrbg.HMAC_SHA_512, seed(), nonce, PERSONALIZATION);
+
+                LOGGER.info(String.format("Seeded %s for %s", drbg, thread.getName()));
+                return new Generator(drbg);
+            }
+        };
+    }
+
+    private byte[] seed() {
+        byte[] seed = new byte[SEED_BYTES];
+        this.seeder.nextBytes(seed);
+        return seed;
+    }
+
+    @Override
+    public BigInteger nextRandom(int bits) {
+        Generator generator = this.generators.get();
+        byte[] bytes = new byte[(bits + 7) / 8];
+        for (int offset = 0; offset < bytes.length; ) {
+            if (generator.position == BUFFER_BYTES) {
+                if (generator.drbg.getReseedCounter() > RESEED_INTERVAL) {
+                    generator.drbg.reseed(this.seed());
+                }
+                generator.drbg.generate(generator.buffer);
+                generator.position = 0;
+            }
+            int length = Math.min(bytes.length - offset, BUFFER_BYTES - generator.position);
+            System.arraycopy(generator.buffer, generator.position, bytes, offset, length);
+            Arrays.fill(generator.buffer, generator.position, generator.position + length, (byte) 0);
+            generator.position += length;
+            offset += length;
+        }
+        if (bits % 8 != 0) {
+            bytes[0] &= (1 << (bits % 8)) - 1;
+        }
+        return new BigInteger(1, bytes);
+    }
+
+    @Override
+    public BigInteger nextNonce(int bits, BigInteger q, BigInteger privateKey, byte[] digest) {
+        return this.nextRandom(bits);
+    }
+
+    @Override
+    public boolean isDeterministic() {
+        return false;
+    }
+
+    private static final class Generator {
+        private final HmacDrbg drbg;
+        private final byte[] buffer;
+        private int position;
+
+        private Generator(HmacDrbg drbg) {
+            this.drbg = drbg;
+            this.buffer = new byte[BUFFER_BYTES];
+            this.position = BUFFER_BYTES;
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("DrbgNonceSource{");
+        sb.append("seeder=").append(seeder.getAlgorithm());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,114 @@
+package org.kornicameister.crypto.schnorr.nonce;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+/**
+ * HMAC_DRBG of NIST SP 800-90A, without prediction resistance and additional input.
+ * It is also the generator RFC 6979 derives deterministic nonces with.
+ * <p/>
+ * Instances are not thread safe.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class HmacDrbg {
+    public static final String HMAC_SHA_512 = "HmacSHA512";
+    private static final byte[] EMPTY = new byte[0];
+    private final Mac mac;
+    private final byte[] key;
+    private final byte[] value;
+    private long reseedCounter;
+    private boolean keyChanged;
+
+    /**
+     * @param algorithm       name of the HMAC, i.e. {@value #HMAC_SHA_512}
+     * @param entropy         entropy input
+     * @param nonce           nonce, may be empty
+     * @param personalization personalization string, may be empty
+     * @throws IllegalArgumentException if HMAC is not available
+     */
+    public HmacDrbg(String algorithm, byte[] entropy, byte[] nonce, byte[] personalization) {
+        try {
+            this.mac = Mac.getInstance(algorithm);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException(String.format("%s is not available", algorithm), e);
+        }
+        this.key = new byte[this.mac.getMacLength()];
+        this.value = new byte[this.mac.getMacLength()];
+        Arrays.fill(this.value, (byte) 0x01);
+        this.keyChanged = true;
+        this.update(entropy, nonce, personalization);
+        this.reseedCounter = 1;
+    }
+
+    /**
+     * @param entropy fresh entropy input
+     */
+    public void reseed(byte[] entropy) {
+        this.update(entropy, EMPTY, EMPTY);
+        this.reseedCounter = 1;
+    }
+
+    /**
+     * Fills the output with generated bytes.
+     *
+     * @param output output
+     */
+    public void generate(byte[] output) {
+        for (int offset = 0; offset < output.length; offset += this.value.length) {
+            this.hmac(this.value, this.value);
+            System.arraycopy(this.value, 0, output, offset, Math.min(this.value.length, output.length - offset));
+        }
+        this.update(EMPTY, EMPTY, EMPTY);
+        this.reseedCounter++;
+    }
+
+    /**
+     * @return amount of generate calls since the last (re)seeding
+     */
+    public long getReseedCounter() {
+        return reseedCounter;
+    }
+
+    private void update(byte[] entropy, byte[] nonce, byte[] personalization) {
+        boolean provided = entropy.length + nonce.length + personalization.length > 0;
+        this.hmac(this.key, this.value, new byte[]{0x00}, entropy, nonce, personalization);
+        this.hmac(this.value, this.value);
+        if (provided) {
+            this.hmac(this.key, this.value, new byte[]{0x01}, entropy, nonce, personalization);
+            this.hmac(this.value, this.value);
+        }
+    }
+
+    /**
+     * Computes HMAC of the data under the current key into the output.
+     * MAC is initialized again only once the key has changed.
+     */
+    private void hmac(byte[] output, byte[]... data) {
+        try {
+            if (this.keyChanged) {
+                this.mac.init(new SecretKeySpec(this.key, this.mac.getAlgorithm()));
+                this.keyChanged = false;
+            }
+            for (byte[] part : data) {
+                this.mac.update(part);
+            }
+            this.mac.doFinal(output, 0);
+            this.keyChanged = output == this.key;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to compute HMAC", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("HmacDrbg{");
+        sb.append("algorithm=").append(mac.getAlgorithm());
+        sb.append(", reseedCounter=").append(reseedCounter);
+        sb.append('}');
+        return sb.toString();
+    }
+}
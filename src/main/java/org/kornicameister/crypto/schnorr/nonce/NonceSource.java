@@ -0,0 +1,35 @@
+package org.kornicameister.crypto.schnorr.nonce;
+
+import java.math.BigInteger;
+
+/**
+ * Source of the randomness of {@link org.kornicameister.crypto.schnorr.SAlgorithm},
+ * that is of the private keys and of the kSignParam (nonce) of every signature.
+ * Sources are used by many signing threads at once.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public interface NonceSource {
+
+    /**
+     * @param bits bit length
+     * @return random number less than 2^bits, i.e. private key
+     */
+    BigInteger nextRandom(int bits);
+
+    /**
+     * @param bits       bit length of the nonce, used by random sources
+     * @param q          order of the group, used by deterministic sources
+     * @param privateKey private key of the signer
+     * @param digest     SHA-512 digest of the signed message
+     * @return kSignParam of the signature
+     */
+    BigInteger nextNonce(int bits, BigInteger q, BigInteger privateKey, byte[] digest);
+
+    /**
+     * @return true if nonce is derived from the private key and the message only,
+     * then it can not be computed in advance, see {@link org.kornicameister.crypto.schnorr.CommitmentPool}
+     */
+    boolean isDeterministic();
+}
@@ -0,0 +1,222 @@
+package org.kornicameister.crypto.schnorr.store;
+
+import org.kornicameister.crypto.schnorr.SchnorrCryptoKey;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache of the signatures in front of another {@link SchnorrKeyStore}.
+ * Signatures are verified several times shortly after they were signed, hence saving
+ * puts the signature into the cache as well, so that verifying it never reaches the database.
+ * <p/>
+ * Cache holds at most <b>capacity</b> signatures, evicted in LRU order. It is split
+ * into {@value #STRIPES} stripes by id, each being a {@link LinkedHashMap} in access order
+ * guarded by its own lock, so that threads verifying different signatures rarely contend.
+ * LRU order is kept per stripe.
+ * <p/>
+ * Cached signatures are shared, they must not be modified by the callers.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class CachingKeyStore implements SchnorrKeyStore {
+    public static final int DEFAULT_CAPACITY = 16384;
+    private static final int STRIPES = 16;
+    private final SchnorrKeyStore delegate;
+    private final int capacity;
+    private final Stripe[] stripes;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+
+    /**
+     * @param delegate store the signatures are kept in
+     * @param capacity maximal amount of cached signatures
+     */
+    public CachingKeyStore(SchnorrKeyStore delegate, int capacity) {
+        if (capacity < STRIPES) {
+            throw new IllegalArgumentException(String.format("Capacity %d is less than %d", capacity, STRIPES));
+        }
+        this.delegate = delegate;
+        this.capacity = capacity;
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            this.stripes[i] = new Stripe(capacity / STRIPES);
+        }
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.evictions = new AtomicLong();
+    }
+
+    @Override
+    public Integer addSchnorrKey(SchnorrCryptoKey cryptoKey) throws SQLException {
+        Integer id = this.delegate.addSchnorrKey(cryptoKey);
+        this.put(id, cryptoKey);
+        return id;
+    }
+
+    @Override
+    public List<Integer> addSchnorrKeys(List<SchnorrCryptoKey> cryptoKeys) throws SQLException {
+        List<Integer> ids = this.delegate.addSchnorrKeys(cryptoKeys);
+        for (int i = 0; i < ids.size(); i++) {
+            this.put(ids.get(i), cryptoKeys.get(i));
+        }
+        return ids;
+    }
+
+    @Override
+    public SchnorrCryptoKey getSchnorrKey(Integer id) throws SQLException {
+        SchnorrCryptoKey cryptoKey = this.get(id);
+        if (cryptoKey != null) {
+            this.hits.incrementAndGet();
+            return cryptoKey;
+        }
+        this.misses.incrementAndGet();
+        cryptoKey = this.delegate.getSchnorrKey(id);
+        if (cryptoKey != null) {
+            this.put(id, cryptoKey);
+        }
+        return cryptoKey;
+    }
+
+    /**
+     * Signatures not cached are loaded from the delegate at once.
+     */
+    @Override
+    public Map<Integer, SchnorrCryptoKey> getSchnorrKeys(Collection<Integer> ids) throws SQLException {
+        Map<Integer, SchnorrCryptoKey> cryptoKeys = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            SchnorrCryptoKey cryptoKey = this.get(id);
+            if (cryptoKey != null) {
+                cryptoKeys.put(id, cryptoKey);
+            } else {
+                missing.add(id);
+            }
+        }
+        this.hits.addAndGet(cryptoKeys.size());
+        this.misses.addAndGet(missing.size());
+        if (!missing.isEmpty()) {
+            for (Map.Entry<Integer, SchnorrCryptoKey> entry : this.delegate.getSchnorrKeys(missing).entrySet()) {
+                this.put(entry.getKey(), entry.getValue());
+                cryptoKeys.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return cryptoKeys;
+    }
+
+    /**
+     * Pages are read from the delegate directly and are not cached,
+     * walking through all signatures would only evict the recent ones.
+     */
+    @Override
+    public List<SchnorrCryptoKey> getSchnorrKeysAfter(Integer afterId, int limit) throws SQLException {
+        return this.delegate.getSchnorrKeysAfter(afterId, limit);
+    }
+
+    private SchnorrCryptoKey get(Integer id) {
+        Stripe stripe = this.stripe(id);
+        synchronized (stripe) {
+            return stripe.get(id);
+        }
+    }
+
+    private void put(Integer id, SchnorrCryptoKey cryptoKey) {
+        Stripe stripe = this.stripe(id);
+        synchronized (stripe) {
+            stripe.put(id, cryptoKey);
+        }
+    }
+
+    private Stripe stripe(Integer id) {
+        int hash = id * 0x9e3779b9;
+        return this.stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        this.delegate.flush();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        this.clear();
+        this.delegate.close();
+    }
+
+    public void clear() {
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : this.stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public SchnorrKeyStore getDelegate() {
+        return delegate;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("CachingKeyStore{");
+        sb.append("delegate=").append(delegate);
+        sb.append(", capacity=").append(capacity);
+        sb.append(", hits=").append(hits);
+        sb.append(", misses=").append(misses);
+        sb.append(", evictions=").append(evictions);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private final class Stripe extends LinkedHashMap<Integer, SchnorrCryptoKey> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, SchnorrCryptoKey> eldest) {
+            if (this.size() > this.capacity) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.kornicameister.crypto.schnorr.store;
+
+import org.kornicameister.crypto.schnorr.SchnorrCryptoKey;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Forward-only cursor over all signatures of the {@link SchnorrKeyStore}, in order of ids.
+ * Signatures are loaded page by page, see {@link SchnorrKeyStore#getSchnorrKeysAfter(Integer, int)},
+ * so only single page is held in memory, whatever the size of the store is.
+ * <p/>
+ * Cursor is not thread safe.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class KeyCursor {
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+    private final SchnorrKeyStore store;
+    private final int pageSize;
+    private Iterator<SchnorrCryptoKey> page;
+    private Integer lastId;
+    private boolean exhausted;
+
+    /**
+     * @param store    walked store
+     * @param afterId  id preceding the first returned signature, 0 to start from the beginning
+     * @param pageSize amount of signatures loaded at once
+     */
+    public KeyCursor(SchnorrKeyStore store, Integer afterId, int pageSize) {
+        this.store = store;
+        this.lastId = afterId;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * @return next signature or null if there are no more of them
+     * @throws SQLException
+     */
+    public SchnorrCryptoKey next() throws SQLException {
+        if (this.page == null || !this.page.hasNext()) {
+            if (this.exhausted) {
+                return null;
+            }
+            List<SchnorrCryptoKey> cryptoKeys = this.store.getSchnorrKeysAfter(this.lastId, this.pageSize);
+            this.exhausted = cryptoKeys.size() < this.pageSize;
+            this.page = cryptoKeys.iterator();
+            if (!this.page.hasNext()) {
+                return null;
+            }
+        }
+        SchnorrCryptoKey cryptoKey = this.page.next();
+        this.lastId = cryptoKey.getPrimaryKey();
+        return cryptoKey;
+    }
+
+    /**
+     * @return id of the signature returned last
+     */
+    public Integer getLastId() {
+        return lastId;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("KeyCursor{");
+        sb.append("lastId=").append(lastId);
+        sb.append(", pageSize=").append(pageSize);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,348 @@
+package org.kornicameister.crypto.schnorr.store;
+
+import org.apache.log4j.Logger;
+import org.kornicameister.crypto.schnorr.SAlgorithmPQA;
+import org.kornicameister.crypto.schnorr.SchnorrCryptoKey;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only store of the signatures, kept in the memory mapped file.
+ * Records are of the fixed width and ids are assigned in order of appending,
+ * hence the position of the record is computed from its id:
+ * <pre>offset = HEADER + (id - firstId) * recordSize</pre>
+ * and loading by id is a direct read of the mapped memory, without any index lookup.
+ * <h3>Layout</h3>
+ * <ul>
+ * <li>Header - magic, version, width of the values, first id, count of records</li>
+ * <li>Record - id, signer_id, e_factor, y_factor and CRC32 of all of these.
+ * Factors are <b>BigInteger.toByteArray()</b> prefixed by their length and padded
+ * to the width of the values</li>
+ * </ul>
+ * File is mapped in regions of {@value #REGION_SIZE} bytes at most, each holding
+ * whole records only. New regions are mapped as the log grows.
+ * <h3>Recovery</h3>
+ * Count of records in the header is updated on every append, but pages are written
+ * back by the operating system in any order, so the count is not trusted. Opening the store
+ * scans the log forward from the first record and stops at the first damaged one, its id
+ * does not match or CRC32 does not. Records after the first damaged one are lost.
+ * Loading checks CRC32 of the record as well, damaged record is reported by {@link SQLException}.
+ * <h3>Concurrency</h3>
+ * Appending is serialized, loading does not lock. Record is written before the count
+ * is published, so readers never see partially written records.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class MappedLogKeyStore implements SchnorrKeyStore {
+    private final static Logger LOGGER = Logger.getLogger(MappedLogKeyStore.class);
+    private static final int MAGIC = 0x53434b4c;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int WIDTH_OFFSET = 8;
+    private static final int FIRST_ID_OFFSET = 12;
+    private static final int COUNT_OFFSET = 16;
+    private static final int REGION_SIZE = 16 * 1024 * 1024;
+    private static final int DIGEST_BYTES = 64;
+    private static final int NULL_SIGNER = Integer.MIN_VALUE;
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int valueBytes;
+    private final int recordSize;
+    private final int regionRecords;
+    private final int firstId;
+    private final byte[] record;
+    private final CRC32 crc;
+    private volatile MappedByteBuffer[] regions;
+    private volatile int count;
+    private volatile boolean closed;
+
+    /**
+     * Opens the store, creating the file if it does not exist and recovering it otherwise.
+     *
+     * @param file       log file
+     * @param valueBytes width of the e and y factors, used only if file is created,
+     *                   see {@link MappedLogKeyStore#valueBytes(SAlgorithmPQA)}
+     * @throws SQLException if file could not be opened or is not a log of signatures
+     */
+    public MappedLogKeyStore(Path file, int valueBytes) throws SQLException {
+        this.file = file;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean created = this.channel.size() == 0;
+            this.header = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+            if (created) {
+                this.header.putInt(0, MAGIC);
+                this.header.putInt(4, VERSION);
+                this.header.putInt(WIDTH_OFFSET, valueBytes);
+                this.header.putInt(FIRST_ID_OFFSET, 1);
+                this.header.putInt(COUNT_OFFSET, 0);
+                this.header.force();
+            } else if (this.header.getInt(0) != MAGIC || this.header.getInt(4) != VERSION) {
+                this.channel.close();
+                throw new SQLException(String.format("%s is not a log of signatures", file));
+            }
+        } catch (IOException e) {
+            throw new SQLException(String.format("Failed to open %s", file), e);
+        }
+        this.valueBytes = this.header.getInt(WIDTH_OFFSET);
+        this.firstId = this.header.getInt(FIRST_ID_OFFSET);
+        this.recordSize = 4 + 4 + 2 + this.valueBytes + 2 + this.valueBytes + 4;
+        this.regionRecords = Math.max(1, REGION_SIZE / this.recordSize);
+        this.record = new byte[this.recordSize];
+        this.crc = new CRC32();
+        this.regions = new MappedByteBuffer[0];
+        if (this.valueBytes != valueBytes) {
+            LOGGER.warn(String.format("%s keeps values of %d bytes, requested %d", file, this.valueBytes, valueBytes));
+        }
+        this.count = this.recover();
+
+        LOGGER.info(String.format("Opened %s", this));
+    }
+
+    /**
+     * @param pqa parameters of the algorithm
+     * @return width that fits e factor (SHA-512 digest) and y factor (less than q)
+     */
+    public static int valueBytes(SAlgorithmPQA pqa) {
+        return Math.max(DIGEST_BYTES + 1, pqa.getQ().bitLength() / 8 + 1);
+    }
+
+    private int recover() throws SQLException {
+        long available;
+        try {
+            available = (this.channel.size() - HEADER_SIZE) / this.recordSize;
+        } catch (IOException e) {
+            throw new SQLException(String.format("Failed to read %s", this.file), e);
+        }
+        int valid = 0;
+        while (valid < available && this.isValid(valid)) {
+            valid++;
+        }
+        if (valid != this.header.getInt(COUNT_OFFSET)) {
+            LOGGER.warn(String.format("Recovered %s, records=%d, checkpoint=%d",
+                    this.file, valid, this.header.getInt(COUNT_OFFSET)));
+            this.header.putInt(COUNT_OFFSET, valid);
+        }
+        return valid;
+    }
+
+    private boolean isValid(int index) throws SQLException {
+        ByteBuffer region = this.region(index / this.regionRecords).duplicate();
+        region.position((index % this.regionRecords) * this.recordSize);
+        region.get(this.record);
+        return isValid(this.record, this.firstId + index, this.crc);
+    }
+
+    private static boolean isValid(byte[] record, int id, CRC32 crc) {
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        if (buffer.getInt(0) != id) {
+            return false;
+        }
+        crc.reset();
+        crc.update(record, 0, record.length - 4);
+        return (int) crc.getValue() == buffer.getInt(record.length - 4);
+    }
+
+    @Override
+    public synchronized Integer addSchnorrKey(SchnorrCryptoKey cryptoKey) throws SQLException {
+        Integer id = this.append(cryptoKey);
+        this.header.putInt(COUNT_OFFSET, this.count);
+        return id;
+    }
+
+    @Override
+    public synchronized List<Integer> addSchnorrKeys(List<SchnorrCryptoKey> cryptoKeys) throws SQLException {
+        List<Integer> ids = new ArrayList<>(cryptoKeys.size());
+        for (SchnorrCryptoKey cryptoKey : cryptoKeys) {
+            ids.add(this.append(cryptoKey));
+        }
+        this.header.putInt(COUNT_OFFSET, this.count);
+        return ids;
+    }
+
+    private Integer append(SchnorrCryptoKey cryptoKey) throws SQLException {
+        if (this.closed) {
+            throw new SQLException(String.format("%s is closed", this));
+        }
+        int index = this.count;
+        int id = this.firstId + index;
+
+        ByteBuffer buffer = ByteBuffer.wrap(this.record);
+        Arrays.fill(this.record, (byte) 0);
+        buffer.putInt(id);
+        buffer.putInt(cryptoKey.getSignerId() != null ? cryptoKey.getSignerId() : NULL_SIGNER);
+        this.putValue(buffer, cryptoKey.getCryptoEPart());
+        this.putValue(buffer, cryptoKey.getCryptoYPart());
+        this.crc.reset();
+        this.crc.update(this.record, 0, this.recordSize - 4);
+        buffer.putInt((int) this.crc.getValue());
+
+        ByteBuffer region = this.region(index / this.regionRecords).duplicate();
+        region.position((index % this.regionRecords) * this.recordSize);
+        region.put(this.record);
+
+        cryptoKey.setPrimaryKey(id);
+        this.count = index + 1;
+        return id;
+    }
+
+    private void putValue(ByteBuffer buffer, BigInteger value) throws SQLException {
+        if (value == null) {
+            throw new SQLException("Signature is not complete");
+        }
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > this.valueBytes) {
+            throw new SQLException(String.format("Value of %d bytes does not fit in %d bytes", bytes.length, this.valueBytes));
+        }
+        int start = buffer.position();
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+        buffer.position(start + 2 + this.valueBytes);
+    }
+
+    @Override
+    public SchnorrCryptoKey getSchnorrKey(Integer id) throws SQLException {
+        int index = id - this.firstId;
+        if (index < 0 || index >= this.count) {
+            return null;
+        }
+        ByteBuffer region = this.regions[index / this.regionRecords].duplicate();
+        region.position((index % this.regionRecords) * this.recordSize);
+        byte[] record = new byte[this.recordSize];
+        region.get(record);
+        if (!isValid(record, id, new CRC32())) {
+            throw new SQLException(String.format("Record %d of %s is damaged", id, this.file));
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(record);
+        SchnorrCryptoKey cryptoKey = new SchnorrCryptoKey();
+        cryptoKey.setPrimaryKey(buffer.getInt());
+        int signerId = buffer.getInt();
+        cryptoKey.setSignerId(signerId != NULL_SIGNER ? signerId : null);
+        cryptoKey.setCryptoEPart(this.getValue(buffer));
+        cryptoKey.setCryptoYPart(this.getValue(buffer));
+        return cryptoKey;
+    }
+
+    private BigInteger getValue(ByteBuffer buffer) {
+        int start = buffer.position();
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        buffer.position(start + 2 + this.valueBytes);
+        return new BigInteger(bytes);
+    }
+
+    @Override
+    public Map<Integer, SchnorrCryptoKey> getSchnorrKeys(Collection<Integer> ids) throws SQLException {
+        Map<Integer, SchnorrCryptoKey> cryptoKeys = new HashMap<>();
+        for (Integer id : ids) {
+            SchnorrCryptoKey cryptoKey = this.getSchnorrKey(id);
+            if (cryptoKey != null) {
+                cryptoKeys.put(id, cryptoKey);
+            }
+        }
+        return cryptoKeys;
+    }
+
+    @Override
+    public List<SchnorrCryptoKey> getSchnorrKeysAfter(Integer afterId, int limit) throws SQLException {
+        int from = Math.max(afterId + 1, this.firstId);
+        int to = (int) Math.min((long) from + limit, (long) this.firstId + this.count);
+        List<SchnorrCryptoKey> cryptoKeys = new ArrayList<>(Math.max(0, to - from));
+        for (int id = from; id < to; id++) {
+            cryptoKeys.add(this.getSchnorrKey(id));
+        }
+        return cryptoKeys;
+    }
+
+    /**
+     * Maps the region if it was not mapped yet. Regions past the end of the file extend it.
+     */
+    private MappedByteBuffer region(int index) throws SQLException {
+        MappedByteBuffer[] regions = this.regions;
+        if (index < regions.length) {
+            return regions[index];
+        }
+        synchronized (this.channel) {
+            regions = this.regions;
+            if (index >= regions.length) {
+                MappedByteBuffer[] grown = Arrays.copyOf(regions, index + 1);
+                long size = (long) this.regionRecords * this.recordSize;
+                try {
+                    for (int i = regions.length; i <= index; i++) {
+                        grown[i] = this.channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + i * size, size);
+                    }
+                } catch (IOException e) {
+                    throw new SQLException(String.format("Failed to map region %d of %s", index, this.file), e);
+                }
+                this.regions = regions = grown;
+            }
+            return regions[index];
+        }
+    }
+
+    /**
+     * Writes mapped regions and the header back to the file.
+     */
+    @Override
+    public synchronized void flush() throws SQLException {
+        for (MappedByteBuffer region : this.regions) {
+            region.force();
+        }
+        this.header.force();
+    }
+
+    /**
+     * Flushes the store and closes the file. Mapped regions are released
+     * by the garbage collector.
+     */
+    @Override
+    public synchronized void close() throws SQLException {
+        if (this.closed) {
+            return;
+        }
+        this.flush();
+        this.closed = true;
+        try {
+            this.channel.close();
+        } catch (IOException e) {
+            throw new SQLException(String.format("Failed to close %s", this.file), e);
+        }
+        LOGGER.info(String.format("Closed %s", this));
+    }
+
+    public int size() {
+        return this.count;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MappedLogKeyStore{");
+        sb.append("file=").append(file);
+        sb.append(", recordSize=").append(recordSize);
+        sb.append(", count=").append(count);
+        sb.append('}');
+        return sb.toString();
+    }
+}
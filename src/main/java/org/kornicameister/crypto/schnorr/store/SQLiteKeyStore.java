@@ -0,0 +1,90 @@
+package org.kornicameister.crypto.schnorr.store;
+
+import org.kornicameister.crypto.schnorr.SchnorrCryptoKey;
+import org.kornicameister.crypto.sqlite.SQLiteController;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Store keeping signatures in the <b>schnorr4</b> table of {@link SQLiteController}.
+ * Every write is committed by the database, hence flushing does nothing.
+ * Signatures of the legacy table are migrated when the store is created,
+ * see {@link SchnorrCryptoKey#migrateLegacy(SQLiteController)}.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class SQLiteKeyStore implements SchnorrKeyStore {
+    private final SQLiteController controller;
+
+    /**
+     * @param controller database bridge
+     * @throws SQLException if signatures of the legacy table could not be migrated
+     */
+    public SQLiteKeyStore(SQLiteController controller) throws SQLException {
+        this.controller = controller;
+        SchnorrCryptoKey.migrateLegacy(controller);
+    }
+
+    @Override
+    public Integer addSchnorrKey(SchnorrCryptoKey cryptoKey) throws SQLException {
+        Integer id = SchnorrCryptoKey.addSchnorrKey(cryptoKey, this.controller);
+        cryptoKey.setPrimaryKey(id);
+        return id;
+    }
+
+    @Override
+    public List<Integer> addSchnorrKeys(List<SchnorrCryptoKey> cryptoKeys) throws SQLException {
+        List<Integer> ids = SchnorrCryptoKey.addSchnorrKeys(cryptoKeys, this.controller);
+        for (int i = 0; i < ids.size(); i++) {
+            cryptoKeys.get(i).setPrimaryKey(ids.get(i));
+        }
+        return ids;
+    }
+
+    @Override
+    public SchnorrCryptoKey getSchnorrKey(Integer id) throws SQLException {
+        return SchnorrCryptoKey.getSchnorrKey(id, this.controller);
+    }
+
+    @Override
+    public Map<Integer, SchnorrCryptoKey> getSchnorrKeys(Collection<Integer> ids) throws SQLException {
+        return SchnorrCryptoKey.getSchnorrKeys(ids, this.controller);
+    }
+
+    @Override
+    public List<SchnorrCryptoKey> getSchnorrKeysAfter(Integer afterId, int limit) throws SQLException {
+        List<SchnorrCryptoKey> cryptoKeys = new ArrayList<>(limit);
+        for (Object cryptoKey : this.controller.getObjectsAfter(afterId, limit, SchnorrCryptoKey.class)) {
+            cryptoKeys.add((SchnorrCryptoKey) cryptoKey);
+        }
+        return cryptoKeys;
+    }
+
+    @Override
+    public void flush() throws SQLException {
+    }
+
+    /**
+     * Does not close the controller, it is shared with the rest of the application.
+     */
+    @Override
+    public void close() throws SQLException {
+    }
+
+    public SQLiteController getController() {
+        return controller;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("SQLiteKeyStore{");
+        sb.append("controller=").append(controller);
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package org.kornicameister.crypto.schnorr.store;
+
+import org.kornicameister.crypto.schnorr.SchnorrCryptoKey;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage of the {@link SchnorrCryptoKey}, that is of the signatures.
+ * Store assigns the id to every signature it saves, signatures are
+ * later loaded by that id only.
+ * <p/>
+ * Failures are reported as {@link SQLException} whatever the backend is,
+ * so that callers handle them the same way they did for {@link SQLiteKeyStore}.
+ * Implementations are safe for concurrent use.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public interface SchnorrKeyStore {
+
+    /**
+     * @param cryptoKey signature without primary key
+     * @return id of the signature, also set as its primary key
+     * @throws SQLException
+     */
+    Integer addSchnorrKey(SchnorrCryptoKey cryptoKey) throws SQLException;
+
+    /**
+     * Saves many signatures at once.
+     *
+     * @param cryptoKeys signatures without primary keys
+     * @return ids of the signatures, in order of cryptoKeys
+     * @throws SQLException
+     */
+    List<Integer> addSchnorrKeys(List<SchnorrCryptoKey> cryptoKeys) throws SQLException;
+
+    /**
+     * @param id id of the signature
+     * @return signature or null if there is none with such id
+     * @throws SQLException
+     */
+    SchnorrCryptoKey getSchnorrKey(Integer id) throws SQLException;
+
+    /**
+     * @param ids ids of the signatures
+     * @return map of id to signature, ids not present in the store are missing
+     * @throws SQLException
+     */
+    Map<Integer, SchnorrCryptoKey> getSchnorrKeys(Collection<Integer> ids) throws SQLException;
+
+    /**
+     * Loads the page of signatures following given id, in order of ids.
+     * Used to walk through all signatures, see {@link KeyCursor}.
+     *
+     * @param afterId id preceding the page, 0 to start from the first signature
+     * @param limit   maximal size of the page
+     * @return signatures, empty once there are no more of them
+     * @throws SQLException
+     */
+    List<SchnorrCryptoKey> getSchnorrKeysAfter(Integer afterId, int limit) throws SQLException;
+
+    /**
+     * Makes everything saved so far durable.
+     *
+     * @throws SQLException
+     */
+    void flush() throws SQLException;
+
+    void close() throws SQLException;
+}
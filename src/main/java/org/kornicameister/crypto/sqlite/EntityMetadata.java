@@ -0,0 +1,219 @@
+package org.kornicameister.crypto.sqlite;
+
+import org.kornicameister.crypto.sqlite.annotations.Column;
+import org.kornicameister.crypto.sqlite.annotations.Id;
+import org.kornicameister.crypto.sqlite.annotations.Table;
+
+import java.lang.reflect.Field;
+import java.math.BigInteger;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mapping of single persisted class, read once from its {@link Table},
+ * {@link Id} and {@link Column} annotations. Holds accessible fields and
+ * parameterized queries, so that they are not rebuilt on every operation.
+ * <p/>
+ * Selected columns are always in the order of {@link EntityMetadata#getColumns()},
+ * id being the first one, hence results are read by index.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+class EntityMetadata {
+    private final static String INSERT = "insert into %s ( %s ) values ( %s )";
+    private final static String SELECT = "select %s from %s where %s";
+    private final static String CREATE_TABLE = "create table if not exists %s ( %s )";
+    private final Class<?> clazz;
+    private final String table;
+    private final Field idField;
+    private final Column idColumn;
+    private final List<Field> fields;
+    private final List<Column> columns;
+    private final String selectColumns;
+    private final String insertQuery;
+    private final String insertWithIdQuery;
+    private final String selectQuery;
+    private final String selectAfterQuery;
+    private final String createQuery;
+
+    EntityMetadata(Class<?> clazz) {
+        Table table = clazz.getAnnotation(Table.class);
+        if (table == null) {
+            throw new IllegalArgumentException(String.format("%s is not annotated with @Table", clazz));
+        }
+        this.clazz = clazz;
+        this.table = table.name();
+        this.fields = new ArrayList<>();
+        this.columns = new ArrayList<>();
+
+        Field idField = null;
+        Column idColumn = null;
+        Id id;
+        Column column;
+        for (Field field : clazz.getDeclaredFields()) {
+            if ((id = field.getAnnotation(Id.class)) != null) {
+                idField = field;
+                idColumn = id.column();
+            } else if ((column = field.getAnnotation(Column.class)) != null) {
+                field.setAccessible(true);
+                this.fields.add(field);
+                this.columns.add(column);
+            }
+        }
+        if (idField == null) {
+            throw new IllegalArgumentException(String.format("%s has no @Id field", clazz));
+        }
+        idField.setAccessible(true);
+        this.idField = idField;
+        this.idColumn = idColumn;
+
+        StringBuilder insertColumns = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        StringBuilder definitions = new StringBuilder(idColumn.name()).append(" integer primary key autoincrement");
+        for (Column c : this.columns) {
+            insertColumns.append(insertColumns.length() == 0 ? "" : ",").append(c.name());
+            values.append(values.length() == 0 ? "?" : ",?");
+            definitions.append(',').append(c.name()).append(' ').append(getColumnType(c));
+        }
+        this.selectColumns = this.columns.isEmpty() ? idColumn.name() : idColumn.name() + "," + insertColumns;
+        this.insertQuery = String.format(INSERT, this.table, insertColumns, values);
+        this.insertWithIdQuery = String.format(INSERT, this.table, this.selectColumns,
+                this.columns.isEmpty() ? "?" : "?," + values);
+        this.selectQuery = String.format(SELECT, this.selectColumns, this.table, idColumn.name() + "=?");
+        this.selectAfterQuery = String.format(SELECT, this.selectColumns, this.table,
+                String.format("%1$s>? order by %1$s limit ?", idColumn.name()));
+        this.createQuery = String.format(CREATE_TABLE, this.table, definitions);
+    }
+
+    /**
+     * @param count amount of ids
+     * @return select query with <verb>id in (?,...)</verb> clause
+     */
+    String getSelectInQuery(int count) {
+        StringBuilder where = new StringBuilder(this.idColumn.name()).append(" in (");
+        for (int i = 0; i < count; i++) {
+            where.append(i == 0 ? "?" : ",?");
+        }
+        where.append(")");
+        return String.format(SELECT, this.selectColumns, this.table, where);
+    }
+
+    /**
+     * @param entity persisted object
+     * @return values of the non-id columns, in order of the insert query
+     */
+    List<Object> getValues(Object entity) throws IllegalAccessException {
+        List<Object> values = new ArrayList<>(this.fields.size());
+        for (int i = 0; i < this.fields.size(); i++) {
+            Object value = this.fields.get(i).get(entity);
+            switch (this.columns.get(i).type()) {
+                case BIG_INTEGER:
+                    values.add(value != null ? ((BigInteger) value).toByteArray() : null);
+                    break;
+                default:
+                    values.add(value);
+                    break;
+            }
+        }
+        return values;
+    }
+
+    Integer getId(Object entity) throws IllegalAccessException {
+        return (Integer) this.idField.get(entity);
+    }
+
+    void setId(Object entity, Integer id) throws IllegalAccessException {
+        this.idField.set(entity, id);
+    }
+
+    /**
+     * Creates the object from the current row of the select query.
+     */
+    Object read(ResultSet resultSet) throws SQLException, InstantiationException, IllegalAccessException {
+        Object entity = this.clazz.newInstance();
+        this.idField.set(entity, resultSet.getInt(1));
+        for (int i = 0; i < this.fields.size(); i++) {
+            Field field = this.fields.get(i);
+            switch (this.columns.get(i).type()) {
+                case INTEGER:
+                    int value = resultSet.getInt(i + 2);
+                    field.set(entity, resultSet.wasNull() ? null : value);
+                    break;
+                case BIG_INTEGER:
+                    byte[] bytes = resultSet.getBytes(i + 2);
+                    field.set(entity, bytes != null ? new BigInteger(bytes) : null);
+                    break;
+                case STRING:
+                    field.set(entity, resultSet.getString(i + 2));
+                    break;
+            }
+        }
+        return entity;
+    }
+
+    private static String getColumnType(Column column) {
+        switch (column.type()) {
+            case INTEGER:
+                return "integer";
+            case BIG_INTEGER:
+                return "blob";
+            default:
+                return "text";
+        }
+    }
+
+    public Class<?> getEntityClass() {
+        return clazz;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public Column getIdColumn() {
+        return idColumn;
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public String getInsertQuery() {
+        return insertQuery;
+    }
+
+    /**
+     * @return insert query with id column being the first one
+     */
+    public String getInsertWithIdQuery() {
+        return insertWithIdQuery;
+    }
+
+    public String getSelectQuery() {
+        return selectQuery;
+    }
+
+    /**
+     * @return select query of the page of rows following given id, in order of ids
+     */
+    public String getSelectAfterQuery() {
+        return selectAfterQuery;
+    }
+
+    public String getCreateQuery() {
+        return createQuery;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("EntityMetadata{");
+        sb.append("clazz=").append(clazz.getSimpleName());
+        sb.append(", table=").append(table);
+        sb.append(", columns=").append(columns.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package org.kornicameister.crypto.sqlite;
+
+import org.apache.log4j.Logger;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Connection of {@link SQLiteController} together with its prepared statements.
+ * Statements are bound to the connection they were prepared on, hence every
+ * connection keeps its own cache.
+ * <p/>
+ * Instances are not thread safe, connection is used by single thread at a time,
+ * that is for as long as it is checked out of the controller.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+class PooledConnection {
+    private final static Logger LOGGER = Logger.getLogger(PooledConnection.class);
+    private final Connection connection;
+    private final boolean readOnly;
+    private final Map<String, PreparedStatement> statements;
+
+    PooledConnection(Connection connection, boolean readOnly) {
+        this.connection = connection;
+        this.readOnly = readOnly;
+        this.statements = new HashMap<>();
+    }
+
+    /**
+     * @param query parameterized query
+     * @return statement prepared once and reused afterwards
+     * @throws SQLException
+     */
+    PreparedStatement prepare(String query) throws SQLException {
+        PreparedStatement statement = this.statements.get(query);
+        if (statement == null) {
+            statement = this.connection.prepareStatement(query);
+            this.statements.put(query, statement);
+
+            LOGGER.info(String.format("Prepared query %s", query));
+        }
+        return statement;
+    }
+
+    void close() {
+        for (PreparedStatement statement : this.statements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                LOGGER.warn("Failed to close the statement", e);
+            }
+        }
+        this.statements.clear();
+        try {
+            this.connection.close();
+        } catch (SQLException e) {
+            LOGGER.warn("Failed to close the connection", e);
+        }
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    boolean isReadOnly() {
+        return readOnly;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PooledConnection{");
+        sb.append("readOnly=").append(readOnly);
+        sb.append(", statements=").append(statements.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
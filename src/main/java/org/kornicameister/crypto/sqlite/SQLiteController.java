@@ -1,21 +1,28 @@
 package org.kornicameister.crypto.sqlite;
 
 import org.apache.log4j.Logger;
-import org.kornicameister.crypto.schnorr.SchnorrCryptoKey;
 import org.kornicameister.crypto.sqlite.annotations.Column;
-import org.kornicameister.crypto.sqlite.annotations.Id;
 import org.kornicameister.crypto.sqlite.annotations.Table;
 import org.kornicameister.crypto.utils.TimeUtils;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.lang.reflect.Field;
-import java.math.BigInteger;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
 
 /**
  * Master of Mongo for JSchnorr.
@@ -24,38 +31,75 @@ import java.util.Properties;
  * <li>database - must be</li>
  * <li>host - must be</li>
  * <li>port - may be</li>
+ * <li>pool.readers - may be, amount of read-only connections, {@value #DEFAULT_READERS} by default</li>
+ * <li>pragma.* - may be, each one is applied to the connection as <verb>pragma name=value</verb>,
+ * i.e. <verb>pragma.journal_mode=WAL</verb>. Pragma is read back afterwards, as SQLite silently
+ * ignores the ones it does not know, and a warning is logged if it was ignored or holds other value</li>
  * </ul>
+ * Controller holds single writer connection and the bounded pool of read-only
+ * connections. Writes are serialized on the writer, reads check out one of the
+ * readers for the time of the operation, so that many threads can load objects
+ * at once while objects are being saved. Database is switched to WAL journal
+ * (unless other journal is configured), as only then readers do not block the writer.
+ * With no readers (or in-memory database) reads go through the writer.
+ * <p/>
+ * Tables are created from the {@link Table} and {@link Column} annotations
+ * of the persisted class, the first time the class is used.
+ * Mapping of each class is read once, see {@link EntityMetadata}, and all queries
+ * are parameterized, hence their prepared statements are cached per connection.
  *
  * @author kornicameister
  * @since 0.0.1
  */
-// @TODO IO in db is working but it is not optimized, to be fixed..caching fields and so on..providing general methods
 public class SQLiteController {
     private final static Logger LOGGER = Logger.getLogger(SQLiteController.class);
-    private final static String INSERT = "insert into %name% ( %fields% ) values ( %values% )";
-    private final static String SELECT_WHERE = "select %fields% from %name% where %where%";
+    private final static String LAST_INSERT_ID = "select last_insert_rowid()";
+    private final static String SELECT_SEQUENCE = "select seq from sqlite_sequence where name=?";
+    private final static String INSERT_SEQUENCE = "insert into sqlite_sequence ( name,seq ) values ( ?,? )";
+    private final static String UPDATE_SEQUENCE = "update sqlite_sequence set seq=? where name=?";
+    private final static String SELECT_MAX_ID = "select coalesce(max(%s),0) from %s";
+    private final static String SELECT_TABLE = "select 1 from sqlite_master where type='table' and name=?";
+    private final static String PRAGMA_PREFIX = "pragma.";
+    private final static String JOURNAL_MODE = "journal_mode";
+    private final static String READERS = "pool.readers";
+    private final static String IN_MEMORY = ":memory:";
+    private final static Pattern PRAGMA = Pattern.compile("[A-Za-z_]+=[A-Za-z0-9_\\-]+");
+    private final static Pattern NUMBER = Pattern.compile("-?[0-9]{1,18}");
+    private final static int DEFAULT_READERS = 4;
+    private final static int MAX_VARIABLES = 999;
+    private final static int MAX_BATCH = 1000;
+    private final static long CHECK_OUT_INTERVAL = 100;
     private static SQLiteController CONTROLLER;
-    private Connection connectionPool;
+    private final ConcurrentMap<Class, EntityMetadata> entities = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private PooledConnection writer;
+    private BlockingQueue<PooledConnection> readers;
+    private int readerCount;
+    private volatile boolean connected;
+
+    SQLiteController() {
+    }
 
-    public static SQLiteController getConnection(File properties) throws ClassNotFoundException, SQLException, IOException {
+    public static synchronized SQLiteController getConnection(File properties) throws ClassNotFoundException, SQLException, IOException {
         if (SQLiteController.CONTROLLER == null) {
             long startTime = System.nanoTime();
             Properties properties1 = new Properties();
             properties1.load(new FileInputStream(properties));
 
-            SQLiteController.CONTROLLER = new SQLiteController();
+            SQLiteController controller = new SQLiteController();
 
             try {
                 Class.forName("org.sqlite.JDBC");
-                String url = "jdbc:sqlite:".concat(properties1.getProperty("database"));
-                SQLiteController.CONTROLLER.connectionPool = DriverManager.getConnection(url);
+                controller.open(properties1);
             } catch (ClassNotFoundException cate) {
                 LOGGER.fatal("SQLiteController could not have been initialised due to missing driver", cate);
                 throw cate;
             } catch (SQLException sable) {
                 LOGGER.fatal("SQLiteController failed to open the connection", sable);
+                controller.close();
                 throw sable;
             }
+            SQLiteController.CONTROLLER = controller;
 
             LOGGER.info(String.format("SQLiteController is ready and is waiting, ctrl=%s, time=%d",
                     SQLiteController.CONTROLLER,
@@ -65,184 +109,592 @@ public class SQLiteController {
         return SQLiteController.CONTROLLER;
     }
 
+    private void open(Properties properties) throws SQLException {
+        String database = properties.getProperty("database");
+        String url = "jdbc:sqlite:".concat(database);
+        int readerCount = Integer.parseInt(properties.getProperty(READERS, String.valueOf(DEFAULT_READERS)).trim());
+        if (IN_MEMORY.equals(database)) {
+            readerCount = 0;
+        }
+
+        Properties pragmas = new Properties();
+        for (String name : properties.stringPropertyNames()) {
+            if (name.startsWith(PRAGMA_PREFIX)) {
+                pragmas.setProperty(name.substring(PRAGMA_PREFIX.length()), properties.getProperty(name).trim());
+            }
+        }
+        if (readerCount > 0 && pragmas.getProperty(JOURNAL_MODE) == null) {
+            pragmas.setProperty(JOURNAL_MODE, "WAL");
+        }
+
+        this.writer = new PooledConnection(DriverManager.getConnection(url), false);
+        this.readers = new ArrayBlockingQueue<>(Math.max(readerCount, 1));
+        this.readerCount = readerCount;
+        this.connected = true;
+        applyPragmas(this.writer.getConnection(), pragmas, true);
+
+        // journal mode is the property of database file, set by the writer already
+        pragmas.remove(JOURNAL_MODE);
+        Properties readOnly = new Properties();
+        readOnly.setProperty("open_mode", "1");
+        for (int i = 0; i < readerCount; i++) {
+            Connection connection = DriverManager.getConnection(url, readOnly);
+            applyPragmas(connection, pragmas, false);
+            this.readers.add(new PooledConnection(connection, true));
+        }
+    }
+
+    private static void applyPragmas(Connection connection, Properties pragmas, boolean required) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            for (String name : pragmas.stringPropertyNames()) {
+                String pragma = name + "=" + pragmas.getProperty(name);
+                if (!PRAGMA.matcher(pragma).matches()) {
+                    LOGGER.warn(String.format("Skipping malformed pragma %s", pragma));
+                    continue;
+                }
+                try {
+                    statement.execute("pragma " + pragma);
+                    String actual = readPragma(statement, name);
+                    if (actual == null) {
+                        LOGGER.warn(String.format("Pragma %s is not supported by SQLite, ignored", pragma));
+                    } else if (!isSameValue(pragmas.getProperty(name), actual)) {
+                        LOGGER.warn(String.format("Pragma %s not applied, %s=%s", pragma, name, actual));
+                    } else {
+                        LOGGER.info(String.format("Applied pragma %s", pragma));
+                    }
+                } catch (SQLException e) {
+                    if (required) {
+                        throw e;
+                    }
+                    LOGGER.warn(String.format("Failed to apply pragma %s", pragma), e);
+                }
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    private static String readPragma(Statement statement, String name) throws SQLException {
+        ResultSet result = statement.executeQuery("pragma " + name);
+        try {
+            return result.next() ? result.getString(1) : null;
+        } finally {
+            result.close();
+        }
+    }
+
+    /**
+     * Symbolic values are read back as numbers (i.e. synchronous=NORMAL as 1),
+     * hence only values of the same kind are compared.
+     */
+    private static boolean isSameValue(String expected, String actual) {
+        boolean numeric = NUMBER.matcher(expected).matches();
+        if (numeric != NUMBER.matcher(actual).matches()) {
+            return true;
+        }
+        return numeric ? Long.parseLong(expected) == Long.parseLong(actual) : expected.equalsIgnoreCase(actual);
+    }
+
     public boolean isConnected() {
-        return CONTROLLER.connectionPool != null;
+        return this.connected;
     }
 
+    /**
+     * Closes all connections. Readers being used at the moment are closed as soon as they are returned.
+     * Afterwards {@link SQLiteController#getConnection(File)} opens new controller.
+     */
     public void close() {
-        if (CONTROLLER.connectionPool == null) {
+        synchronized (SQLiteController.class) {
+            if (SQLiteController.CONTROLLER == this) {
+                SQLiteController.CONTROLLER = null;
+            }
+        }
+        if (!this.connected) {
             LOGGER.warn("Connection pool has been initialized...");
             return;
         }
+        this.connected = false;
+        this.writeLock.lock();
         try {
-            CONTROLLER.connectionPool.close();
-        } catch (SQLException e) {
-            LOGGER.warn("Failed to close the connection", e);
+            this.writer.close();
+        } finally {
+            this.writeLock.unlock();
+        }
+        PooledConnection reader;
+        while ((reader = this.readers.poll()) != null) {
+            reader.close();
         }
     }
 
-    public Integer saveObject(SchnorrCryptoKey data) throws SQLException {
-        PreparedStatement pStatement = CONTROLLER
-                .connectionPool
-                .prepareStatement(this.getInsertQuery(data.getClass()));
-        List<java.lang.Object> objectList = this.getQueryData(data);
-
-        LOGGER.info(String.format("Ready to use query %s", pStatement));
-
-        for (int i = 0; i < objectList.size(); i++) {
-            pStatement.setObject(i + 1, objectList.get(i));
-        }
+    public Integer saveObject(Object data) throws SQLException {
+        EntityMetadata entity = this.getEntity(data.getClass());
+        this.writeLock.lock();
+        try {
+            PreparedStatement pStatement = this.writer.prepare(entity.getInsertQuery());
+            this.setValues(pStatement, entity, data);
 
-        pStatement.execute();
+            pStatement.execute();
 
-        ResultSet result = pStatement.getGeneratedKeys();
-        result.next();
-        Integer idKey = Integer.valueOf(result.getString(1));
-        pStatement.close();
+            ResultSet result = pStatement.getGeneratedKeys();
+            result.next();
+            Integer idKey = result.getInt(1);
+            result.close();
 
-        return idKey;
+            return idKey;
+        } finally {
+            this.writeLock.unlock();
+        }
     }
 
+    /**
+     * Saves many objects of the same class within single transaction. Rows are
+     * sent to the database in batches of at most {@value #MAX_BATCH} statements.
+     * As the connection is held by single writer for the whole transaction, ids
+     * given by SQLite are consecutive and are derived from the last one.
+     *
+     * @param data objects to save
+     * @return ids of the saved objects, in order of data
+     * @throws SQLException if any object could not be saved, nothing is saved then
+     */
+    public List<Integer> saveObjects(List<?> data) throws SQLException {
+        List<Integer> ids = new ArrayList<>(data.size());
+        if (data.isEmpty()) {
+            return ids;
+        }
+        EntityMetadata entity = this.getEntity(data.get(0).getClass());
+        long startTime = System.nanoTime();
+        int lastId;
 
-    public Object getObject(Integer id, Class clazz) throws SQLException {
-        String query = this.getSelectQuery(clazz, id);
-        PreparedStatement statement = CONTROLLER.connectionPool.prepareStatement(query);
-
-        ResultSet resultSet = statement.executeQuery();
-        resultSet.next();
-        Object cryptoKey = this.setObjectFromQueryResult(clazz, resultSet);
-        statement.close();
+        this.writeLock.lock();
+        try {
+            Connection connection = this.writer.getConnection();
+            boolean autoCommit = connection.getAutoCommit();
+            PreparedStatement pStatement = this.writer.prepare(entity.getInsertQuery());
+            connection.setAutoCommit(false);
+            try {
+                for (int i = 0; i < data.size(); i++) {
+                    this.setValues(pStatement, entity, data.get(i));
+                    pStatement.addBatch();
+                    if ((i + 1) % MAX_BATCH == 0) {
+                        pStatement.executeBatch();
+                    }
+                }
+                pStatement.executeBatch();
+
+                ResultSet result = this.writer.prepare(LAST_INSERT_ID).executeQuery();
+                result.next();
+                lastId = result.getInt(1);
+                result.close();
+
+                connection.commit();
+            } catch (SQLException e) {
+                pStatement.clearBatch();
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } finally {
+            this.writeLock.unlock();
+        }
 
-        return cryptoKey;
+        for (int id = lastId - data.size() + 1; id <= lastId; id++) {
+            ids.add(id);
+        }
+        LOGGER.info(String.format("Saved %d objects of %s, time=%d",
+                data.size(),
+                entity.getEntityClass().getSimpleName(),
+                TimeUtils.elapsedFromTime(startTime)));
+        return ids;
     }
 
-    private Object setObjectFromQueryResult(Class clazz, ResultSet resultSet) throws SQLException {
-        Object cryptoKey = null;
-        Id id;
-        Column column;
+    /**
+     * Reserves the block of consecutive ids of the class' table. Ids are taken from
+     * the table's AUTOINCREMENT sequence, so that they are never given to objects
+     * saved with {@link SQLiteController#saveObject(Object)} afterwards.
+     *
+     * @param clazz class of the objects
+     * @param count size of the block
+     * @return first id of the block
+     * @throws SQLException
+     * @see SQLiteController#saveObjectsWithIds(List)
+     */
+    public int reserveIds(Class clazz, int count) throws SQLException {
+        EntityMetadata entity = this.getEntity(clazz);
+        this.writeLock.lock();
         try {
-            cryptoKey = clazz.newInstance();
-            for (Field field : clazz.getDeclaredFields()) {
-                if ((id = field.getAnnotation(Id.class)) != null) {
-                    column = id.column();
+            Connection connection = this.writer.getConnection();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                PreparedStatement select = this.writer.prepare(SELECT_SEQUENCE);
+                select.setString(1, entity.getTable());
+                ResultSet result = select.executeQuery();
+                boolean exists = result.next();
+                int last = exists ? result.getInt(1) : 0;
+                result.close();
+
+                PreparedStatement update;
+                if (exists) {
+                    update = this.writer.prepare(UPDATE_SEQUENCE);
+                    update.setInt(1, last + count);
+                    update.setString(2, entity.getTable());
                 } else {
-                    column = field.getAnnotation(Column.class);
+                    result = this.writer.prepare(String.format(SELECT_MAX_ID,
+                            entity.getIdColumn().name(),
+                            entity.getTable())).executeQuery();
+                    result.next();
+                    last = result.getInt(1);
+                    result.close();
+
+                    update = this.writer.prepare(INSERT_SEQUENCE);
+                    update.setString(1, entity.getTable());
+                    update.setInt(2, last + count);
                 }
-                if (column != null) {
-                    field.setAccessible(true);
-                    switch (column.type()) {
-                        case INTEGER:
-                            field.set(cryptoKey, resultSet.getInt(column.name()));
-                            break;
-                        case BIG_INTEGER:
-                            byte[] bytes = resultSet.getBytes(column.name());
-                            field.set(cryptoKey, new BigInteger(bytes));
-                            break;
+                update.executeUpdate();
+                connection.commit();
+
+                return last + 1;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * Saves objects, having ids already assigned, within single transaction.
+     *
+     * @param data objects to save, all of the same class
+     * @throws SQLException if any object could not be saved, nothing is saved then
+     * @see SQLiteController#reserveIds(Class, int)
+     */
+    public void saveObjectsWithIds(List<?> data) throws SQLException {
+        if (data.isEmpty()) {
+            return;
+        }
+        EntityMetadata entity = this.getEntity(data.get(0).getClass());
+
+        this.writeLock.lock();
+        try {
+            Connection connection = this.writer.getConnection();
+            boolean autoCommit = connection.getAutoCommit();
+            PreparedStatement pStatement = this.writer.prepare(entity.getInsertWithIdQuery());
+            connection.setAutoCommit(false);
+            try {
+                for (int i = 0; i < data.size(); i++) {
+                    try {
+                        pStatement.setInt(1, entity.getId(data.get(i)));
+                        List<Object> values = entity.getValues(data.get(i));
+                        for (int j = 0; j < values.size(); j++) {
+                            pStatement.setObject(j + 2, values.get(j));
+                        }
+                    } catch (IllegalAccessException iae) {
+                        LOGGER.fatal("Failed to retrieved query values by reflection", iae);
+                        throw new SQLException(iae);
+                    }
+                    pStatement.addBatch();
+                    if ((i + 1) % MAX_BATCH == 0) {
+                        pStatement.executeBatch();
                     }
-                    field.setAccessible(false);
                 }
+                pStatement.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                pStatement.clearBatch();
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
             }
-        } catch (InstantiationException e) {
-            LOGGER.fatal("Failed to instance an object", e);
-        } catch (IllegalAccessException e) {
-            LOGGER.fatal("Failed to access class constructor", e);
+        } finally {
+            this.writeLock.unlock();
+        }
+    }
+
+    /**
+     * @param table name of the table
+     * @return true if the table exists in database
+     * @throws SQLException
+     */
+    public boolean hasTable(String table) throws SQLException {
+        this.writeLock.lock();
+        try {
+            PreparedStatement statement = this.writer.prepare(SELECT_TABLE);
+            statement.setString(1, table);
+            ResultSet result = statement.executeQuery();
+            try {
+                return result.next();
+            } finally {
+                result.close();
+            }
+        } finally {
+            this.writeLock.unlock();
         }
-        return cryptoKey;
     }
 
-    private String getSelectQuery(Class clazz, Integer idWhere) {
-        String fields = this.getQueryColumns(clazz, idWhere).toString();
-        Table table = (Table) clazz.getAnnotation(Table.class);
-        Id id;
-        Column column = null;
-        for (Field field : clazz.getDeclaredFields()) {
-            if ((id = field.getAnnotation(Id.class)) != null) {
-                column = id.column();
-                break;
+    /**
+     * Creates the table of the class, unless it exists already.
+     *
+     * @param clazz class of the objects
+     * @throws SQLException
+     */
+    public void createTable(Class clazz) throws SQLException {
+        this.getEntity(clazz);
+    }
+
+    /**
+     * Executes statements within single transaction of the writer, i.e. to migrate the schema.
+     *
+     * @param statements statements to execute, in order
+     * @throws SQLException if any statement failed, none of them is applied then
+     */
+    public void executeInTransaction(List<String> statements) throws SQLException {
+        this.writeLock.lock();
+        try {
+            Connection connection = this.writer.getConnection();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            Statement statement = connection.createStatement();
+            try {
+                for (String sql : statements) {
+                    statement.execute(sql);
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                statement.close();
+                connection.setAutoCommit(autoCommit);
             }
+        } finally {
+            this.writeLock.unlock();
         }
+    }
 
-        if (column != null) {
-            String query = SELECT_WHERE.replaceFirst("%fields%", fields).replaceFirst("%name%", table.name());
-            query = query.replaceFirst("%where%", String.format("%s=%d", column.name(), idWhere));
-            return query;
+    /**
+     * @param data object
+     * @return id of the object, as mapped by its {@link org.kornicameister.crypto.sqlite.annotations.Id}
+     */
+    public Integer getId(Object data) throws SQLException {
+        try {
+            return this.getEntity(data.getClass()).getId(data);
+        } catch (IllegalAccessException iae) {
+            throw new SQLException(iae);
         }
+    }
 
-        return null;
+    /**
+     * Assigns the id to the object, as mapped by its {@link org.kornicameister.crypto.sqlite.annotations.Id}.
+     *
+     * @param data object
+     * @param id   id
+     */
+    public void setId(Object data, Integer id) throws SQLException {
+        try {
+            this.getEntity(data.getClass()).setId(data, id);
+        } catch (IllegalAccessException iae) {
+            throw new SQLException(iae);
+        }
     }
 
-    private List<java.lang.Object> getQueryData(Object data) {
-        Field[] declaredFields = data.getClass().getDeclaredFields();
-        List<java.lang.Object> objects = new ArrayList<>();
+    /**
+     * @param id    id of the object
+     * @param clazz class of the object
+     * @return loaded object or null if there is none with such id
+     * @throws SQLException
+     */
+    public Object getObject(Integer id, Class clazz) throws SQLException {
+        EntityMetadata entity = this.getEntity(clazz);
+        PooledConnection reader = this.checkOut();
+        try {
+            PreparedStatement statement = reader.prepare(entity.getSelectQuery());
+            statement.setInt(1, id);
+
+            ResultSet resultSet = statement.executeQuery();
+            try {
+                return resultSet.next() ? this.read(entity, resultSet) : null;
+            } finally {
+                resultSet.close();
+            }
+        } finally {
+            this.checkIn(reader);
+        }
+    }
 
-        Column column;
+    /**
+     * Loads many objects at once. Ids are queried with <verb>in (...)</verb> clause,
+     * split only if there are more of them than SQLite allows in single statement.
+     * Ids that are not present in database are missing from the result.
+     * <p/>
+     * Amount of placeholders is rounded up to the power of two (padded with repeated id),
+     * so that only few distinct statements are prepared and cached.
+     *
+     * @param ids   ids of the objects
+     * @param clazz class of the objects
+     * @return map of id to loaded object
+     * @throws SQLException
+     */
+    public Map<Integer, Object> getObjects(Collection<Integer> ids, Class clazz) throws SQLException {
+        Map<Integer, Object> objects = new HashMap<>();
+        List<Integer> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        EntityMetadata entity = this.getEntity(clazz);
+
+        PooledConnection reader = this.checkOut();
         try {
-            for (Field field : declaredFields) {
-                if ((column = field.getAnnotation(Column.class)) != null && field.getAnnotation(Id.class) == null) {
-                    field.setAccessible(true);
-                    switch (column.type()) {
-                        case INTEGER:
-                            objects.add(field.getInt(data));
-                            break;
-                        case BIG_INTEGER:
-                            BigInteger bi = (BigInteger) field.get(data);
-                            objects.add(bi.toByteArray());
-                            break;
-                    }
-                    field.setAccessible(false);
+            for (int from = 0; from < idList.size(); from += MAX_VARIABLES) {
+                List<Integer> chunk = idList.subList(from, Math.min(from + MAX_VARIABLES, idList.size()));
+                int placeholders = Math.min(Integer.highestOneBit(chunk.size() * 2 - 1), MAX_VARIABLES);
+                PreparedStatement statement = reader.prepare(entity.getSelectInQuery(placeholders));
+                for (int i = 0; i < placeholders; i++) {
+                    statement.setInt(i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                }
+
+                ResultSet resultSet = statement.executeQuery();
+                while (resultSet.next()) {
+                    objects.put(resultSet.getInt(1), this.read(entity, resultSet));
                 }
+                resultSet.close();
             }
-        } catch (IllegalAccessException iae) {
-            LOGGER.fatal("Failed to retrieved query values by reflection", iae);
-            return null;
+        } finally {
+            this.checkIn(reader);
         }
 
         return objects;
     }
 
-    private String getInsertQuery(Class clazz) {
-        Field[] declaredFields = clazz.getDeclaredFields();
-        StringBuilder columns = this.getQueryColumns(clazz, null), fields = new StringBuilder();
-        String tableName = ((Table) clazz.getAnnotation(Table.class)).name();
+    /**
+     * Loads the page of objects following given id, in order of ids. Paging by id
+     * uses the primary key index and holds the connection only for the time of the page,
+     * so that all objects can be walked through without long running read transaction.
+     *
+     * @param afterId id preceding the page, 0 to start from the first object
+     * @param limit   maximal size of the page
+     * @param clazz   class of the objects
+     * @return objects, empty once there are no more of them
+     * @throws SQLException
+     */
+    public List<Object> getObjectsAfter(Integer afterId, int limit, Class clazz) throws SQLException {
+        List<Object> objects = new ArrayList<>(limit);
+        EntityMetadata entity = this.getEntity(clazz);
+
+        PooledConnection reader = this.checkOut();
+        try {
+            PreparedStatement statement = reader.prepare(entity.getSelectAfterQuery());
+            statement.setInt(1, afterId);
+            statement.setInt(2, limit);
 
-        for (Field field : declaredFields) {
-            if (field.getAnnotation(Column.class) != null && field.getAnnotation(Id.class) == null) {
-                {
-                    fields.append("?,");
+            ResultSet resultSet = statement.executeQuery();
+            try {
+                while (resultSet.next()) {
+                    objects.add(this.read(entity, resultSet));
                 }
+            } finally {
+                resultSet.close();
             }
+        } finally {
+            this.checkIn(reader);
         }
-        String query = INSERT.replaceFirst("%name%", tableName);
-        query = query.replaceFirst("%fields%", columns.toString());
-        query = query.replaceFirst("%values%", fields.deleteCharAt(fields.length() - 1).toString());
 
-        return query;
+        return objects;
     }
 
-    private StringBuilder getQueryColumns(Class clazz, Integer idWhere) {
-        Field[] declaredFields = clazz.getDeclaredFields();
-        Column column;
-        Id id;
-        StringBuilder columns = new StringBuilder();
-        for (Field field : declaredFields) {
-            if (idWhere != null && (id = field.getAnnotation(Id.class)) != null) {
-                column = id.column();
-                columns.append(column.name() + ",");
-                LOGGER.info(String.format("Saved %s with values", field.getName()));
-            } else if ((column = field.getAnnotation(Column.class)) != null && field.getAnnotation(Id.class) == null) {
-                {
-                    columns.append(column.name() + ",");
-                    LOGGER.info(String.format("Saved %s with values", field.getName()));
+    /**
+     * Takes reader out of the pool, waiting if all of them are in use.
+     * If there are no readers, writer is locked and returned instead.
+     * Waiting is done in intervals of {@value #CHECK_OUT_INTERVAL}ms, so that
+     * controller closed meanwhile is noticed instead of waiting forever.
+     */
+    private PooledConnection checkOut() throws SQLException {
+        if (!this.connected) {
+            throw new SQLException("SQLiteController is closed");
+        }
+        if (this.readerCount == 0) {
+            this.writeLock.lock();
+            return this.writer;
+        }
+        try {
+            PooledConnection reader;
+            while ((reader = this.readers.poll(CHECK_OUT_INTERVAL, TimeUnit.MILLISECONDS)) == null) {
+                if (!this.connected) {
+                    throw new SQLException("SQLiteController is closed");
                 }
             }
+            if (!this.connected) {
+                reader.close();
+                throw new SQLException("SQLiteController is closed");
+            }
+            return reader;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the connection", e);
+        }
+    }
+
+    private void checkIn(PooledConnection connection) {
+        if (connection == this.writer) {
+            this.writeLock.unlock();
+        } else if (!this.connected) {
+            connection.close();
+        } else {
+            this.readers.offer(connection);
+        }
+    }
+
+    private EntityMetadata getEntity(Class clazz) throws SQLException {
+        EntityMetadata entity = this.entities.get(clazz);
+        if (entity == null) {
+            entity = new EntityMetadata(clazz);
+            this.writeLock.lock();
+            try {
+                Statement statement = this.writer.getConnection().createStatement();
+                statement.execute(entity.getCreateQuery());
+                statement.close();
+            } finally {
+                this.writeLock.unlock();
+            }
+            EntityMetadata existing = this.entities.putIfAbsent(clazz, entity);
+            entity = existing != null ? existing : entity;
+
+            LOGGER.info(String.format("Registered %s, query=%s", entity, entity.getCreateQuery()));
+        }
+        return entity;
+    }
+
+    private void setValues(PreparedStatement statement, EntityMetadata entity, Object data) throws SQLException {
+        try {
+            List<Object> values = entity.getValues(data);
+            for (int i = 0; i < values.size(); i++) {
+                statement.setObject(i + 1, values.get(i));
+            }
+        } catch (IllegalAccessException iae) {
+            LOGGER.fatal("Failed to retrieved query values by reflection", iae);
+            throw new SQLException(iae);
         }
-        return columns.deleteCharAt(columns.length() - 1);
+    }
+
+    private Object read(EntityMetadata entity, ResultSet resultSet) throws SQLException {
+        try {
+            return entity.read(resultSet);
+        } catch (InstantiationException e) {
+            LOGGER.fatal("Failed to instance an object", e);
+        } catch (IllegalAccessException e) {
+            LOGGER.fatal("Failed to access class constructor", e);
+        }
+        return null;
     }
 
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder("SQLiteController{");
-        sb.append("connectionPool=").append(CONTROLLER.connectionPool);
+        sb.append("writer=").append(writer);
+        sb.append(", readers=").append(readerCount);
         sb.append('}');
         return sb.toString();
     }
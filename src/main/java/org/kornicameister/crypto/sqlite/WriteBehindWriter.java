@@ -0,0 +1,281 @@
+package org.kornicameister.crypto.sqlite;
+
+import org.apache.log4j.Logger;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Asynchronous writer of the objects of single class. Saving assigns the id
+ * from the block reserved in advance, see {@link SQLiteController#reserveIds(Class, int)},
+ * and only queues the object. Background thread drains the queue and saves whatever
+ * has gathered in single transaction (group commit).
+ * <ul>
+ * <li>Queue is bounded, saving blocks once it is full (backpressure)</li>
+ * <li>Objects waiting in the queue are available by {@link WriteBehindWriter#getPending(Integer)}</li>
+ * <li>{@link WriteBehindWriter#flush()} returns once everything saved before is durable</li>
+ * </ul>
+ * Failed transaction is retried, objects are dropped (and the failure is reported
+ * by the following flush) only after {@value #MAX_ATTEMPTS} attempts.
+ * <p/>
+ * Saving holds the read lock of <b>closeLock</b> until the object is queued and closing
+ * takes its write lock to stop accepting objects, hence every object accepted by
+ * {@link WriteBehindWriter#save(Object)} is queued before the writer stops.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class WriteBehindWriter {
+    private final static Logger LOGGER = Logger.getLogger(WriteBehindWriter.class);
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 100;
+    private static final long POLL_MS = 100;
+    private final SQLiteController controller;
+    private final Class<?> clazz;
+    private final int blockSize;
+    private final int maxBatch;
+    private final BlockingQueue<Object> queue;
+    private final ConcurrentMap<Integer, Object> pending;
+    private final Object idMonitor;
+    private final Object flushMonitor;
+    private final ReadWriteLock closeLock;
+    private final Thread thread;
+    private int nextId;
+    private int lastId;
+    private long submitted;
+    private long completed;
+    private long failed;
+    private SQLException failure;
+    private volatile boolean running;
+
+    /**
+     * Creates and starts the writer.
+     *
+     * @param controller    database bridge
+     * @param clazz         class of saved objects
+     * @param blockSize     amount of ids reserved at once
+     * @param queueCapacity maximal amount of objects waiting to be saved
+     * @param maxBatch      maximal amount of objects saved in single transaction
+     */
+    public WriteBehindWriter(SQLiteController controller, Class<?> clazz, int blockSize, int queueCapacity, int maxBatch) {
+        if (blockSize < 1 || queueCapacity < 1 || maxBatch < 1) {
+            throw new IllegalArgumentException(String.format("Invalid writer settings, block=%d, queue=%d, batch=%d",
+                    blockSize, queueCapacity, maxBatch));
+        }
+        this.controller = controller;
+        this.clazz = clazz;
+        this.blockSize = blockSize;
+        this.maxBatch = maxBatch;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.pending = new ConcurrentHashMap<>();
+        this.idMonitor = new Object();
+        this.flushMonitor = new Object();
+        this.closeLock = new ReentrantReadWriteLock();
+        this.running = true;
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                write();
+            }
+        }, "write-behind-" + clazz.getSimpleName());
+        this.thread.setDaemon(true);
+        this.thread.start();
+
+        LOGGER.info(String.format("Started %s", this));
+    }
+
+    /**
+     * Assigns the id to the object and queues it, waiting if the queue is full.
+     *
+     * @param data object of the writer's class
+     * @return id of the object
+     * @throws SQLException if ids could not be reserved or writer is closed
+     */
+    public Integer save(Object data) throws SQLException {
+        this.closeLock.readLock().lock();
+        try {
+            if (!this.running) {
+                throw new SQLException(String.format("%s is closed", this));
+            }
+            Integer id = this.nextId();
+            this.controller.setId(data, id);
+            this.pending.put(id, data);
+            synchronized (this.flushMonitor) {
+                this.submitted++;
+            }
+            try {
+                this.queue.put(data);
+            } catch (InterruptedException e) {
+                this.pending.remove(id);
+                this.complete(1, null);
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for the queue", e);
+            }
+            return id;
+        } finally {
+            this.closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param id id of the object
+     * @return object saved, but not written to database yet, or null
+     */
+    public Object getPending(Integer id) {
+        return this.pending.get(id);
+    }
+
+    /**
+     * Waits until every object saved before the call is written to database.
+     *
+     * @throws SQLException if any write failed since the previous flush
+     */
+    public void flush() throws SQLException {
+        synchronized (this.flushMonitor) {
+            long target = this.submitted;
+            try {
+                while (this.completed < target) {
+                    this.flushMonitor.wait(POLL_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while flushing", e);
+            }
+            if (this.failure != null) {
+                SQLException exception = this.failure;
+                this.failure = null;
+                throw exception;
+            }
+        }
+    }
+
+    /**
+     * Stops accepting objects, flushes the writer and stops its thread.
+     * Ids reserved but not used are abandoned.
+     *
+     * @throws SQLException if any write failed
+     */
+    public void close() throws SQLException {
+        this.closeLock.writeLock().lock();
+        try {
+            if (!this.running) {
+                return;
+            }
+            this.running = false;
+        } finally {
+            this.closeLock.writeLock().unlock();
+        }
+        try {
+            this.flush();
+        } finally {
+            this.thread.interrupt();
+            LOGGER.info(String.format("Closed %s", this));
+        }
+    }
+
+    private Integer nextId() throws SQLException {
+        synchronized (this.idMonitor) {
+            if (this.nextId == 0 || this.nextId > this.lastId) {
+                this.nextId = this.controller.reserveIds(this.clazz, this.blockSize);
+                this.lastId = this.nextId + this.blockSize - 1;
+            }
+            return this.nextId++;
+        }
+    }
+
+    private void write() {
+        List<Object> batch = new ArrayList<>(this.maxBatch);
+        while (this.running || !this.queue.isEmpty()) {
+            try {
+                Object first = this.queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                continue;
+            }
+            this.queue.drainTo(batch, this.maxBatch - 1);
+
+            SQLException error = null;
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                try {
+                    this.controller.saveObjectsWithIds(batch);
+                    error = null;
+                    break;
+                } catch (SQLException e) {
+                    error = e;
+                    LOGGER.warn(String.format("Failed to write %d objects, attempt=%d", batch.size(), attempt), e);
+                    if (attempt == MAX_ATTEMPTS) {
+                        break;
+                    }
+                    try {
+                        Thread.sleep(RETRY_DELAY_MS * attempt);
+                    } catch (InterruptedException ignored) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+            if (error != null) {
+                LOGGER.fatal(String.format("Dropped %d objects of %s", batch.size(), this.clazz.getSimpleName()), error);
+            }
+
+            for (Object data : batch) {
+                try {
+                    this.pending.remove(this.controller.getId(data));
+                } catch (SQLException e) {
+                    LOGGER.warn("Failed to read id of written object", e);
+                }
+            }
+            this.complete(batch.size(), error);
+            batch.clear();
+        }
+    }
+
+    private void complete(int count, SQLException error) {
+        synchronized (this.flushMonitor) {
+            this.completed += count;
+            if (error != null) {
+                this.failed += count;
+                this.failure = error;
+            }
+            this.flushMonitor.notifyAll();
+        }
+    }
+
+    public int getQueueSize() {
+        return this.queue.size();
+    }
+
+    /**
+     * @return amount of objects dropped after failed writes
+     */
+    public long getFailedCount() {
+        synchronized (this.flushMonitor) {
+            return this.failed;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("WriteBehindWriter{");
+        sb.append("clazz=").append(clazz.getSimpleName());
+        sb.append(", blockSize=").append(blockSize);
+        sb.append(", maxBatch=").append(maxBatch);
+        sb.append(", queue=").append(queue.size());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,97 @@
+package org.kornicameister.crypto.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Utility class for feeding large inputs into {@link MessageDigest}.
+ * <ul>
+ * <li>Small files are read with large direct buffer</li>
+ * <li>Large files are memory-mapped region by region. While one region is being
+ * digested, the next one is loaded into memory in the background</li>
+ * </ul>
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class DigestUtils {
+    public static final int BUFFER_SIZE = 256 * 1024;
+    public static final long MAP_THRESHOLD = 4L * 1024 * 1024;
+    public static final long MAP_REGION = 64L * 1024 * 1024;
+    private static final ThreadLocal<ByteBuffer> BUFFER = new ThreadLocal<ByteBuffer>() {
+        @Override
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocateDirect(BUFFER_SIZE);
+        }
+    };
+    private static final ExecutorService PREFETCHER = Executors.newFixedThreadPool(2, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "digest-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Digests the channel from its current position up to its end.
+     * Afterwards the channel is positioned at its end.
+     *
+     * @param digest  digest to update
+     * @param channel file channel
+     * @throws IOException
+     */
+    public static void update(MessageDigest digest, FileChannel channel) throws IOException {
+        long position = channel.position();
+        long size = channel.size();
+
+        if (size - position < MAP_THRESHOLD) {
+            ByteBuffer buffer = BUFFER.get();
+            buffer.clear();
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            return;
+        }
+
+        MappedByteBuffer current = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_REGION, size - position));
+        while (current != null) {
+            position += current.capacity();
+            MappedByteBuffer next = null;
+            if (position < size) {
+                next = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_REGION, size - position));
+                prefetch(next);
+            }
+            digest.update(current);
+            current = next;
+        }
+        channel.position(size);
+    }
+
+    /**
+     * Digests remaining bytes of the buffer without changing its position.
+     *
+     * @param digest digest to update
+     * @param buffer buffer
+     */
+    public static void update(MessageDigest digest, ByteBuffer buffer) {
+        digest.update(buffer.duplicate());
+    }
+
+    private static void prefetch(final MappedByteBuffer region) {
+        PREFETCHER.execute(new Runnable() {
+            @Override
+            public void run() {
+                region.load();
+            }
+        });
+    }
+}
@@ -0,0 +1,134 @@
+package org.kornicameister.crypto.utils;
+
+import java.math.BigInteger;
+
+/**
+ * Precomputed multiples of a single, fixed point of {@link EllipticCurve}, the counterpart
+ * of {@link FixedBaseTable}. Row <b>i</b> holds every <verb>d * 2^(i * window) * base</verb>
+ * for digits <verb>0 < d < 2^window</verb>, so that computing a multiple of the base
+ * comes down to one mixed addition per scalar's window without any doubling.
+ * <p/>
+ * Points are kept in affine coordinates, normalized row by row with single inversion,
+ * and none of them is infinity, hence mixed addition is complete for every lookup.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class EcFixedBaseTable implements FixedBasePower {
+    private final EllipticCurve curve;
+    private final EllipticCurve.Point base;
+    private final int window;
+    private final int exponentBits;
+    private final EllipticCurve.Point[][] table;
+
+    /**
+     * Builds the table.
+     *
+     * @param curve        curve of the base
+     * @param base         fixed point of prime order n of the curve
+     * @param exponentBits maximal bit length of the scalars table should cover
+     * @param window       width of the window in bits, bigger means faster and larger table
+     */
+    public EcFixedBaseTable(EllipticCurve curve, EllipticCurve.Point base, int exponentBits, int window) {
+        assert window > 0 && exponentBits > 0;
+        this.curve = curve;
+        this.base = base;
+        this.window = window;
+        this.exponentBits = exponentBits;
+        this.table = new EllipticCurve.Point[(exponentBits + window - 1) / window][];
+
+        EllipticCurve.Point rowBase = base;
+        EllipticCurve.Point[] row = new EllipticCurve.Point[(1 << window) - 1];
+        for (int i = 0; i < this.table.length; i++) {
+            row[0] = rowBase;
+            for (int d = 1; d < row.length; d++) {
+                row[d] = curve.add(row[d - 1], rowBase);
+            }
+            // next row base = 2^window * rowBase
+            rowBase = curve.add(row[row.length - 1], rowBase);
+            this.table[i] = curve.normalize(row);
+        }
+    }
+
+    /**
+     * Computes <verb>k * base</verb>. Scalars longer than the table covers
+     * (or negative ones) are reduced modulo the order of the curve.
+     *
+     * @param k scalar
+     * @return multiple of the fixed base, in projective coordinates
+     */
+    public EllipticCurve.Point multiply(BigInteger k) {
+        if (k.signum() < 0 || k.bitLength() > this.exponentBits) {
+            k = k.mod(this.curve.getN());
+        }
+        EllipticCurve.Point result = this.curve.getInfinity();
+        int bitLength = k.bitLength();
+        for (int i = 0; i < this.table.length; i++) {
+            int offset = i * this.window;
+            if (offset >= bitLength) {
+                break;
+            }
+            int digit = MontgomeryContext.windowValue(k, offset + this.window - 1, offset);
+            if (digit != 0) {
+                result = this.curve.addAffine(result, this.table[i][digit - 1]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param exponent scalar
+     * @return compressed <verb>exponent * base</verb>, see {@link EllipticCurve#encode(EllipticCurve.Point)}
+     */
+    @Override
+    public BigInteger pow(BigInteger exponent) {
+        return this.curve.encode(this.multiply(exponent));
+    }
+
+    public EllipticCurve getCurve() {
+        return curve;
+    }
+
+    public EllipticCurve.Point getBase() {
+        return base;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public int getExponentBits() {
+        return exponentBits;
+    }
+
+    /**
+     * @return approximated memory used by the points held in the table, in bytes
+     */
+    public long getMemoryFootprint() {
+        return estimateMemoryFootprint(this.curve.getP().bitLength(), this.exponentBits, this.window);
+    }
+
+    /**
+     * Estimates memory required by the table for given parameters.
+     *
+     * @param fieldBits    bit length of the field prime
+     * @param exponentBits maximal bit length of the scalar
+     * @param window       window width
+     * @return approximated amount of bytes
+     */
+    public static long estimateMemoryFootprint(int fieldBits, int exponentBits, int window) {
+        long rows = (exponentBits + window - 1) / window;
+        return rows * ((1L << window) - 1) * 2 * ((fieldBits + 7) / 8);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("EcFixedBaseTable{");
+        sb.append("curve=").append(curve.getName());
+        sb.append(", window=").append(window);
+        sb.append(", exponentBits=").append(exponentBits);
+        sb.append(", memory=").append(this.getMemoryFootprint());
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,463 @@
+package org.kornicameister.crypto.utils;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Short Weierstrass curve <verb>y^2 = x^3 - 3x + b</verb> over the prime field,
+ * of prime order <b>n</b>, such as NIST P-256.
+ * <p/>
+ * Points are kept in homogeneous projective coordinates <verb>(X : Y : Z)</verb>, with
+ * <verb>(0 : 1 : 0)</verb> being the point at infinity. Addition and doubling use the complete
+ * formulas for <verb>a = -3</verb> of Renes, Costello and Batina (algorithms 4, 5 and 6
+ * of "Complete addition formulas for prime order elliptic curves"), which hold for
+ * any pair of points, doubling and infinity included, so there is no special case to branch on.
+ * <p/>
+ * Coordinates are held in Montgomery representation of {@link MontgomeryContext} of the field prime,
+ * so that field arithmetic is done on limbs, without {@link BigInteger}. Numbers are converted
+ * only when points enter or leave the curve.
+ * <p/>
+ * Points leave the curve in SEC 1 compressed form, <verb>02|03 || x</verb>, read as unsigned
+ * number, see {@link EllipticCurve#encode(Point)}. Infinity is encoded as 0.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class EllipticCurve {
+    /**
+     * NIST P-256, FIPS 186-4 D.1.2.3.
+     */
+    public static final EllipticCurve P_256 = new EllipticCurve(
+            "P-256",
+            new BigInteger("ffffffff00000001000000000000000000000000ffffffffffffffffffffffff", 16),
+            new BigInteger("5ac635d8aa3a93e7b3ebbd55769886bc651d06b0cc53b0f63bce3c3e27d2604b", 16),
+            new BigInteger("ffffffff00000000ffffffffffffffffbce6faada7179e84f3b9cac2fc632551", 16),
+            new BigInteger("6b17d1f2e12c4247f8bce6e563a440f277037d812deb33a0f4a13945d898c296", 16),
+            new BigInteger("4fe342e2fe1a7f9b8ee7eb4a7c0f9e162bce33576b315ececbb6406837bf51f5", 16)
+    );
+    private static final int WINDOW = 4;
+    private static final BigInteger THREE = BigInteger.valueOf(3);
+    private final String name;
+    private final BigInteger p;
+    private final BigInteger b;
+    private final BigInteger n;
+    private final BigInteger sqrtExponent;
+    private final int fieldBytes;
+    private final MontgomeryContext field;
+    private final int[] bm;
+    private final int[] one;
+    private final Point generator;
+    private final Point infinity;
+
+    /**
+     * @param name name of the curve
+     * @param p    field prime, <verb>p = 3 mod 4</verb>
+     * @param b    coefficient b
+     * @param n    prime order of the curve
+     * @param gx   x of the generator
+     * @param gy   y of the generator
+     */
+    public EllipticCurve(String name, BigInteger p, BigInteger b, BigInteger n, BigInteger gx, BigInteger gy) {
+        if (!p.testBit(0) || !p.testBit(1)) {
+            throw new IllegalArgumentException(String.format("Prime of %s is not 3 mod 4", name));
+        }
+        this.name = name;
+        this.p = p;
+        this.b = b;
+        this.n = n;
+        this.sqrtExponent = p.add(BigInteger.ONE).shiftRight(2);
+        this.fieldBytes = (p.bitLength() + 7) / 8;
+        this.field = MontgomeryContext.forModulus(p);
+        this.bm = this.field.toMontgomery(b);
+        this.one = this.field.one();
+        this.generator = this.point(gx, gy);
+        this.infinity = new Point(new int[this.field.getLength()], this.field.one(), new int[this.field.getLength()]);
+    }
+
+    /**
+     * Complete addition, algorithm 4.
+     *
+     * @return <verb>p1 + p2</verb>
+     */
+    public Point add(Point p1, Point p2) {
+        int[] scratch = new int[this.field.getLength() + 2];
+        int[] t0, t1, t2, t3, t4, x3, y3, z3;
+        t0 = this.mul(p1.x, p2.x, scratch);
+        t1 = this.mul(p1.y, p2.y, scratch);
+        t2 = this.mul(p1.z, p2.z, scratch);
+        t3 = this.add(p1.x, p1.y);
+        t4 = this.add(p2.x, p2.y);
+        t3 = this.mul(t3, t4, scratch);
+        t4 = this.add(t0, t1);
+        t3 = this.sub(t3, t4);
+        t4 = this.add(p1.y, p1.z);
+        x3 = this.add(p2.y, p2.z);
+        t4 = this.mul(t4, x3, scratch);
+        x3 = this.add(t1, t2);
+        t4 = this.sub(t4, x3);
+        x3 = this.add(p1.x, p1.z);
+        y3 = this.add(p2.x, p2.z);
+        x3 = this.mul(x3, y3, scratch);
+        y3 = this.add(t0, t2);
+        y3 = this.sub(x3, y3);
+        z3 = this.mul(this.bm, t2, scratch);
+        x3 = this.sub(y3, z3);
+        z3 = this.add(x3, x3);
+        x3 = this.add(x3, z3);
+        z3 = this.sub(t1, x3);
+        x3 = this.add(t1, x3);
+        y3 = this.mul(this.bm, y3, scratch);
+        t1 = this.add(t2, t2);
+        t2 = this.add(t1, t2);
+        y3 = this.sub(y3, t2);
+        y3 = this.sub(y3, t0);
+        t1 = this.add(y3, y3);
+        y3 = this.add(t1, y3);
+        t1 = this.add(t0, t0);
+        t0 = this.add(t1, t0);
+        t0 = this.sub(t0, t2);
+        t1 = this.mul(t4, y3, scratch);
+        t2 = this.mul(t0, y3, scratch);
+        y3 = this.mul(x3, z3, scratch);
+        y3 = this.add(y3, t2);
+        x3 = this.mul(t3, x3, scratch);
+        x3 = this.sub(x3, t1);
+        z3 = this.mul(t4, z3, scratch);
+        t1 = this.mul(t3, t0, scratch);
+        z3 = this.add(z3, t1);
+        return new Point(x3, y3, z3);
+    }
+
+    /**
+     * Mixed addition, algorithm 5. Complete as long as the affine point is not infinity.
+     *
+     * @param p1     any point
+     * @param affine point with <verb>Z = 1</verb>
+     * @return <verb>p1 + affine</verb>
+     */
+    public Point addAffine(Point p1, Point affine) {
+        int[] scratch = new int[this.field.getLength() + 2];
+        int[] t0, t1, t2, t3, t4, x3, y3, z3;
+        t0 = this.mul(p1.x, affine.x, scratch);
+        t1 = this.mul(p1.y, affine.y, scratch);
+        t3 = this.add(affine.x, affine.y);
+        t4 = this.add(p1.x, p1.y);
+        t3 = this.mul(t3, t4, scratch);
+        t4 = this.add(t0, t1);
+        t3 = this.sub(t3, t4);
+        t4 = this.mul(affine.y, p1.z, scratch);
+        t4 = this.add(t4, p1.y);
+        y3 = this.mul(affine.x, p1.z, scratch);
+        y3 = this.add(y3, p1.x);
+        z3 = this.mul(this.bm, p1.z, scratch);
+        x3 = this.sub(y3, z3);
+        z3 = this.add(x3, x3);
+        x3 = this.add(x3, z3);
+        z3 = this.sub(t1, x3);
+        x3 = this.add(t1, x3);
+        y3 = this.mul(this.bm, y3, scratch);
+        t1 = this.add(p1.z, p1.z);
+        t2 = this.add(t1, p1.z);
+        y3 = this.sub(y3, t2);
+        y3 = this.sub(y3, t0);
+        t1 = this.add(y3, y3);
+        y3 = this.add(t1, y3);
+        t1 = this.add(t0, t0);
+        t0 = this.add(t1, t0);
+        t0 = this.sub(t0, t2);
+        t1 = this.mul(t4, y3, scratch);
+        t2 = this.mul(t0, y3, scratch);
+        y3 = this.mul(x3, z3, scratch);
+        y3 = this.add(y3, t2);
+        x3 = this.mul(t3, x3, scratch);
+        x3 = this.sub(x3, t1);
+        z3 = this.mul(t4, z3, scratch);
+        t1 = this.mul(t3, t0, scratch);
+        z3 = this.add(z3, t1);
+        return new Point(x3, y3, z3);
+    }
+
+    /**
+     * Doubling, algorithm 6.
+     *
+     * @return <verb>2 * p1</verb>
+     */
+    public Point twice(Point p1) {
+        int[] scratch = new int[this.field.getLength() + 2];
+        int[] t0, t1, t2, t3, x3, y3, z3;
+        t0 = this.mul(p1.x, p1.x, scratch);
+        t1 = this.mul(p1.y, p1.y, scratch);
+        t2 = this.mul(p1.z, p1.z, scratch);
+        t3 = this.mul(p1.x, p1.y, scratch);
+        t3 = this.add(t3, t3);
+        z3 = this.mul(p1.x, p1.z, scratch);
+        z3 = this.add(z3, z3);
+        y3 = this.mul(this.bm, t2, scratch);
+        y3 = this.sub(y3, z3);
+        x3 = this.add(y3, y3);
+        y3 = this.add(x3, y3);
+        x3 = this.sub(t1, y3);
+        y3 = this.add(t1, y3);
+        y3 = this.mul(x3, y3, scratch);
+        x3 = this.mul(x3, t3, scratch);
+        t3 = this.add(t2, t2);
+        t2 = this.add(t2, t3);
+        z3 = this.mul(this.bm, z3, scratch);
+        z3 = this.sub(z3, t2);
+        z3 = this.sub(z3, t0);
+        t3 = this.add(z3, z3);
+        z3 = this.add(z3, t3);
+        t3 = this.add(t0, t0);
+        t0 = this.add(t3, t0);
+        t0 = this.sub(t0, t2);
+        t0 = this.mul(t0, z3, scratch);
+        y3 = this.add(y3, t0);
+        t0 = this.mul(p1.y, p1.z, scratch);
+        t0 = this.add(t0, t0);
+        z3 = this.mul(t0, z3, scratch);
+        x3 = this.sub(x3, z3);
+        z3 = this.mul(t0, t1, scratch);
+        z3 = this.add(z3, z3);
+        z3 = this.add(z3, z3);
+        return new Point(x3, y3, z3);
+    }
+
+    /**
+     * @return <verb>-p1</verb>
+     */
+    public Point negate(Point p1) {
+        int[] y = new int[this.field.getLength()];
+        this.field.subtract(y, p1.y, y);
+        return new Point(p1.x, y, p1.z);
+    }
+
+    /**
+     * Computes <verb>k * point</verb> with fixed windows of {@value #WINDOW} bits.
+     * Scalar is not reduced, so that <verb>n * point</verb> is infinity for points of order n.
+     *
+     * @param point any point
+     * @param k     non-negative scalar
+     * @return multiple of the point
+     */
+    public Point multiply(Point point, BigInteger k) {
+        if (k.signum() < 0) {
+            throw new IllegalArgumentException("Negative scalar");
+        }
+        Point[] multiples = new Point[1 << WINDOW];
+        multiples[0] = this.infinity;
+        multiples[1] = point;
+        for (int d = 2; d < multiples.length; d++) {
+            multiples[d] = (d & 1) == 0 ? this.twice(multiples[d >>> 1]) : this.add(multiples[d - 1], point);
+        }
+        Point result = this.infinity;
+        for (int offset = ((k.bitLength() + WINDOW - 1) / WINDOW - 1) * WINDOW; offset >= 0; offset -= WINDOW) {
+            if (result != this.infinity) {
+                for (int i = 0; i < WINDOW; i++) {
+                    result = this.twice(result);
+                }
+            }
+            int digit = MontgomeryContext.windowValue(k, offset + WINDOW - 1, offset);
+            if (digit != 0) {
+                result = this.add(result, multiples[digit]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return affine point with <verb>Z = 1</verb> or infinity as it is
+     */
+    public Point normalize(Point point) {
+        if (this.isInfinity(point) || Arrays.equals(point.z, this.one)) {
+            return point;
+        }
+        int[] scratch = new int[this.field.getLength() + 2];
+        int[] zInv = this.inverse(point.z);
+        return new Point(this.mul(point.x, zInv, scratch), this.mul(point.y, zInv, scratch), this.one);
+    }
+
+    /**
+     * Normalizes many points with single inversion (Montgomery's trick).
+     *
+     * @param points points, none being infinity
+     * @return affine points, in order of points
+     */
+    public Point[] normalize(Point[] points) {
+        int[] scratch = new int[this.field.getLength() + 2];
+        int[][] products = new int[points.length][];
+        int[] product = this.one;
+        for (int i = 0; i < points.length; i++) {
+            products[i] = product;
+            product = this.mul(product, points[i].z, scratch);
+        }
+        int[] inverse = this.inverse(product);
+        Point[] affine = new Point[points.length];
+        for (int i = points.length - 1; i >= 0; i--) {
+            int[] zInv = this.mul(inverse, products[i], scratch);
+            inverse = this.mul(inverse, points[i].z, scratch);
+            affine[i] = new Point(this.mul(points[i].x, zInv, scratch), this.mul(points[i].y, zInv, scratch), this.one);
+        }
+        return affine;
+    }
+
+    public boolean isInfinity(Point point) {
+        for (int limb : point.z) {
+            if (limb != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if affine point satisfies the equation of the curve
+     */
+    public boolean isOnCurve(BigInteger x, BigInteger y) {
+        if (x.signum() < 0 || x.compareTo(this.p) >= 0 || y.signum() < 0 || y.compareTo(this.p) >= 0) {
+            return false;
+        }
+        return y.multiply(y).mod(this.p).equals(this.rightSide(x));
+    }
+
+    /**
+     * @param point point
+     * @return affine x and y of the point, null for infinity
+     */
+    public BigInteger[] toAffine(Point point) {
+        if (this.isInfinity(point)) {
+            return null;
+        }
+        Point affine = this.normalize(point);
+        return new BigInteger[]{this.field.fromMontgomery(affine.x), this.field.fromMontgomery(affine.y)};
+    }
+
+    /**
+     * @param x affine x
+     * @param y affine y
+     * @return point of given coordinates, not checked against being on the curve
+     */
+    public Point point(BigInteger x, BigInteger y) {
+        return new Point(this.field.toMontgomery(x), this.field.toMontgomery(y), this.one);
+    }
+
+    /**
+     * @param point point
+     * @return compressed point as unsigned number, 0 for infinity
+     */
+    public BigInteger encode(Point point) {
+        BigInteger[] affine = this.toAffine(point);
+        if (affine == null) {
+            return BigInteger.ZERO;
+        }
+        BigInteger prefix = BigInteger.valueOf(affine[1].testBit(0) ? 3 : 2);
+        return prefix.shiftLeft(8 * this.fieldBytes).or(affine[0]);
+    }
+
+    /**
+     * @param encoded compressed point, as of {@link EllipticCurve#encode(Point)}
+     * @return affine point
+     * @throws IllegalArgumentException if number is not a point of the curve
+     */
+    public Point decode(BigInteger encoded) {
+        if (encoded.signum() == 0) {
+            return this.infinity;
+        }
+        int prefix = encoded.shiftRight(8 * this.fieldBytes).intValue();
+        if (prefix != 2 && prefix != 3) {
+            throw new IllegalArgumentException(String.format("Not a compressed point of %s", this.name));
+        }
+        BigInteger x = encoded.subtract(BigInteger.valueOf(prefix).shiftLeft(8 * this.fieldBytes));
+        if (x.compareTo(this.p) >= 0) {
+            throw new IllegalArgumentException(String.format("Not a point of %s", this.name));
+        }
+        BigInteger ySquared = this.rightSide(x);
+        BigInteger y = ySquared.modPow(this.sqrtExponent, this.p);
+        if (!y.multiply(y).mod(this.p).equals(ySquared)) {
+            throw new IllegalArgumentException(String.format("Not a point of %s", this.name));
+        }
+        if (y.testBit(0) != (prefix == 3)) {
+            y = this.p.subtract(y);
+        }
+        return this.point(x, y);
+    }
+
+    private BigInteger rightSide(BigInteger x) {
+        // x^3 - 3x + b
+        return x.multiply(x).multiply(x).subtract(THREE.multiply(x)).add(this.b).mod(this.p);
+    }
+
+    private int[] inverse(int[] x) {
+        return this.field.toMontgomery(this.field.fromMontgomery(x).modInverse(this.p));
+    }
+
+    private int[] mul(int[] a, int[] b, int[] scratch) {
+        int[] c = new int[a.length];
+        this.field.multiply(a, b, c, scratch);
+        return c;
+    }
+
+    private int[] add(int[] a, int[] b) {
+        int[] c = new int[a.length];
+        this.field.add(a, b, c);
+        return c;
+    }
+
+    private int[] sub(int[] a, int[] b) {
+        int[] c = new int[a.length];
+        this.field.subtract(a, b, c);
+        return c;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BigInteger getP() {
+        return p;
+    }
+
+    public BigInteger getB() {
+        return b;
+    }
+
+    public BigInteger getN() {
+        return n;
+    }
+
+    public Point getGenerator() {
+        return generator;
+    }
+
+    public Point getInfinity() {
+        return infinity;
+    }
+
+    public int getFieldBytes() {
+        return fieldBytes;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("EllipticCurve{");
+        sb.append("name=").append(name);
+        sb.append(", bits=").append(p.bitLength());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Point in projective coordinates, each of them in Montgomery representation. Immutable,
+     * obtained from the curve only.
+     */
+    public static final class Point {
+        private final int[] x;
+        private final int[] y;
+        private final int[] z;
+
+        private Point(int[] x, int[] y, int[] z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+    }
+}
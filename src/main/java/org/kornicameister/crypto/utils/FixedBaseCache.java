@@ -0,0 +1,181 @@
+package org.kornicameister.crypto.utils;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of {@link FixedBaseTable} built for the bases used
+ * over and over again (i.e. public keys being verified repeatedly).
+ * <p/>
+ * Base is considered <i>hot</i> once it was requested <b>hotThreshold</b> times,
+ * only then the table is built. Building costs as much as 5-7 verifications saved
+ * by the table (5ms for 1024-bit p, 34ms for 3072-bit p), hence the default
+ * threshold of {@value #DEFAULT_HOT_THRESHOLD}. Tables are evicted in LRU order as soon
+ * as their total {@link FixedBaseTable#getMemoryFootprint()} exceeds memory cap.
+ * If single table does not fit in memory cap, none is ever built.
+ * Usage counters of the cold bases are bounded as well.
+ * <p/>
+ * Cache is safe for concurrent use. Lookups do not take any lock, only
+ * inserting the table (and evicting the others) is serialized.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class FixedBaseCache {
+    public static final long DEFAULT_MEMORY_CAP = 64L * 1024 * 1024;
+    public static final int DEFAULT_HOT_THRESHOLD = 8;
+    private static final int MAX_COUNTERS = 16384;
+    private final MontgomeryContext context;
+    private final int exponentBits;
+    private final int window;
+    private final long memoryCap;
+    private final int hotThreshold;
+    private final boolean fitsMemoryCap;
+    private final ConcurrentMap<BigInteger, Entry> tables;
+    private final ConcurrentMap<BigInteger, AtomicInteger> counters;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions;
+    private long memoryUsed;
+
+    /**
+     * @param context      Montgomery context of the modulus
+     * @param exponentBits maximal bit length of exponents, see {@link FixedBaseTable}
+     * @param window       window width of each table
+     * @param memoryCap    maximal memory all tables may use, in bytes
+     * @param hotThreshold amount of requests after which table is built for the base
+     */
+    public FixedBaseCache(MontgomeryContext context, int exponentBits, int window, long memoryCap, int hotThreshold) {
+        this.context = context;
+        this.exponentBits = exponentBits;
+        this.window = window;
+        this.memoryCap = memoryCap;
+        this.hotThreshold = Math.max(1, hotThreshold);
+        this.fitsMemoryCap = FixedBaseTable.estimateMemoryFootprint(
+                context.getModulus().bitLength(), exponentBits, window) <= memoryCap;
+        this.tables = new ConcurrentHashMap<>();
+        this.counters = new ConcurrentHashMap<>();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.evictions = new AtomicLong();
+    }
+
+    /**
+     * Returns table for the base if it is cached or if the base has just become hot.
+     * Building the table happens outside of any lock.
+     *
+     * @param base base of the exponentiation
+     * @return table or null if base is not hot yet
+     */
+    public FixedBaseTable get(BigInteger base) {
+        Entry entry = this.tables.get(base);
+        if (entry != null) {
+            entry.lastAccess = System.nanoTime();
+            this.hits.incrementAndGet();
+            return entry.table;
+        }
+        this.misses.incrementAndGet();
+        if (!this.fitsMemoryCap) {
+            return null;
+        }
+
+        AtomicInteger counter = this.counters.get(base);
+        if (counter == null) {
+            if (this.counters.size() >= MAX_COUNTERS) {
+                this.counters.clear();
+            }
+            AtomicInteger existing = this.counters.putIfAbsent(base, counter = new AtomicInteger());
+            counter = existing != null ? existing : counter;
+        }
+        if (counter.incrementAndGet() != this.hotThreshold) {
+            return null;
+        }
+        this.counters.remove(base, counter);
+
+        FixedBaseTable table = new FixedBaseTable(base, this.context, this.exponentBits, this.window);
+        this.put(base, table);
+        return table;
+    }
+
+    private synchronized void put(BigInteger base, FixedBaseTable table) {
+        long footprint = table.getMemoryFootprint();
+        if (footprint > this.memoryCap || this.tables.containsKey(base)) {
+            return;
+        }
+        this.tables.put(base, new Entry(table));
+        this.memoryUsed += footprint;
+
+        while (this.memoryUsed > this.memoryCap) {
+            Map.Entry<BigInteger, Entry> eldest = null;
+            for (Map.Entry<BigInteger, Entry> candidate : this.tables.entrySet()) {
+                if (!candidate.getKey().equals(base)
+                        && (eldest == null || candidate.getValue().lastAccess < eldest.getValue().lastAccess)) {
+                    eldest = candidate;
+                }
+            }
+            if (eldest == null) {
+                break;
+            }
+            this.tables.remove(eldest.getKey());
+            this.memoryUsed -= eldest.getValue().table.getMemoryFootprint();
+            this.evictions.incrementAndGet();
+        }
+    }
+
+    public synchronized void clear() {
+        this.tables.clear();
+        this.counters.clear();
+        this.memoryUsed = 0;
+    }
+
+    public int size() {
+        return this.tables.size();
+    }
+
+    public synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    public long getMemoryCap() {
+        return memoryCap;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("FixedBaseCache{");
+        sb.append("size=").append(tables.size());
+        sb.append(", memoryUsed=").append(this.getMemoryUsed());
+        sb.append(", memoryCap=").append(memoryCap);
+        sb.append(", hits=").append(hits.get());
+        sb.append(", misses=").append(misses.get());
+        sb.append(", evictions=").append(evictions.get());
+        sb.append('}');
+        return sb.toString();
+    }
+
+    private static class Entry {
+        private final FixedBaseTable table;
+        private volatile long lastAccess;
+
+        private Entry(FixedBaseTable table) {
+            this.table = table;
+            this.lastAccess = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.kornicameister.crypto.utils;
+
+import java.math.BigInteger;
+
+/**
+ * Powers of a single, fixed base in some group, usually computed
+ * with the table precomputed for that base.
+ *
+ * @author kornicameister
+ * @see FixedBaseTable
+ * @see EcFixedBaseTable
+ * @since 0.0.2
+ */
+public interface FixedBasePower {
+
+    /**
+     * @param exponent non-negative exponent
+     * @return power of the base, encoded as number
+     */
+    BigInteger pow(BigInteger exponent);
+}
@@ -0,0 +1,207 @@
+package org.kornicameister.crypto.utils;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * Precomputed powers of a single, fixed base modulo fixed modulus.
+ * Table is built once using fixed-window method, so that each row
+ * <b>i</b> holds every <verb>base^(d * 2^(i * window)) mod modulus</verb>
+ * for digits <verb>0 < d < 2^window</verb>. Computing power of the base
+ * comes down then to the one modular multiplication per exponent's window
+ * without any squaring.
+ * <p/>
+ * Residues are held in Montgomery representation of {@link MontgomeryContext},
+ * so that lookups are combined with Montgomery multiplication only, done
+ * in the workspace of the calling thread.
+ * <p/>
+ * Memory cost grows as <verb>ceil(exponentBits / window) * (2^window - 1)</verb>
+ * residues, see {@link FixedBaseTable#estimateMemoryFootprint(int, int, int)}.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class FixedBaseTable implements FixedBasePower {
+    private final BigInteger base;
+    private final MontgomeryContext context;
+    private final int window;
+    private final int exponentBits;
+    private final int[][][] table;
+
+    /**
+     * Builds the table.
+     *
+     * @param base         fixed base
+     * @param modulus      odd modulus
+     * @param exponentBits maximal bit length of the exponents table should cover
+     * @param window       width of the window in bits, bigger means faster and larger table
+     */
+    public FixedBaseTable(BigInteger base, BigInteger modulus, int exponentBits, int window) {
+        this(base, MontgomeryContext.forModulus(modulus), exponentBits, window);
+    }
+
+    /**
+     * Builds the table sharing already created {@link MontgomeryContext}.
+     *
+     * @param base         fixed base
+     * @param context      Montgomery context of the modulus
+     * @param exponentBits maximal bit length of the exponents table should cover
+     * @param window       width of the window in bits, bigger means faster and larger table
+     */
+    public FixedBaseTable(BigInteger base, MontgomeryContext context, int exponentBits, int window) {
+        assert window > 0 && exponentBits > 0;
+        this.base = base;
+        this.context = context;
+        this.window = window;
+        this.exponentBits = exponentBits;
+        this.table = new int[(exponentBits + window - 1) / window][1 << window][];
+
+        int[] scratch = new int[context.getLength() + 2];
+        int[] rowBase = context.toMontgomery(base);
+        for (int[][] row : this.table) {
+            row[0] = context.one();
+            row[1] = rowBase;
+            for (int d = 2; d < row.length; d++) {
+                row[d] = new int[context.getLength()];
+                context.multiply(row[d - 1], rowBase, row[d], scratch);
+            }
+            // next row base = rowBase^(2^window)
+            rowBase = new int[context.getLength()];
+            context.multiply(row[row.length - 1], row[1], rowBase, scratch);
+        }
+    }
+
+    private FixedBaseTable(BigInteger base, MontgomeryContext context, int exponentBits, int window, int[][][] table) {
+        this.base = base;
+        this.context = context;
+        this.window = window;
+        this.exponentBits = exponentBits;
+        this.table = table;
+    }
+
+    /**
+     * Writes the residues of the table, base and modulus are not written.
+     * Digit 0 of every row is one and is skipped.
+     *
+     * @param out output
+     * @throws IOException
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(this.window);
+        out.writeInt(this.exponentBits);
+        out.writeInt(this.table.length);
+        for (int[][] row : this.table) {
+            for (int d = 1; d < row.length; d++) {
+                MontgomeryContext.writeLimbs(out, row[d]);
+            }
+        }
+    }
+
+    /**
+     * Reads the table written by {@link FixedBaseTable#write(DataOutput)} without recomputing it.
+     *
+     * @param buffer  buffer positioned at the table
+     * @param base    base the table was written for
+     * @param context Montgomery context of the modulus the table was written for
+     * @return table
+     * @throws IllegalArgumentException if table is malformed
+     */
+    public static FixedBaseTable read(ByteBuffer buffer, BigInteger base, MontgomeryContext context) {
+        int window = buffer.getInt();
+        int exponentBits = buffer.getInt();
+        int rows = buffer.getInt();
+        if (window < 1 || window > 16 || exponentBits < 1 || rows != (exponentBits + window - 1) / window) {
+            throw new IllegalArgumentException(String.format("Invalid table, window=%d, exponentBits=%d, rows=%d",
+                    window, exponentBits, rows));
+        }
+        int[][][] table = new int[rows][1 << window][];
+        for (int[][] row : table) {
+            row[0] = context.one();
+            for (int d = 1; d < row.length; d++) {
+                row[d] = MontgomeryContext.readLimbs(buffer, context.getLength());
+            }
+        }
+        return new FixedBaseTable(base, context, exponentBits, window, table);
+    }
+
+    /**
+     * Computes <verb>base^exponent mod modulus</verb>. Exponents longer than
+     * the table covers (or negative ones) are computed without the table.
+     *
+     * @param exponent exponent
+     * @return power of the fixed base
+     */
+    @Override
+    public BigInteger pow(BigInteger exponent) {
+        if (exponent.signum() < 0 || exponent.bitLength() > this.exponentBits) {
+            return this.base.modPow(exponent, this.context.getModulus());
+        }
+        MontgomeryContext.Workspace workspace = this.context.workspace();
+        int[] scratch = workspace.scratch;
+        int[] result = workspace.result(this.table[0][0]);
+        int bitLength = exponent.bitLength();
+        for (int i = 0; i < this.table.length; i++) {
+            int offset = i * this.window;
+            if (offset >= bitLength) {
+                break;
+            }
+            int digit = MontgomeryContext.windowValue(exponent, offset + this.window - 1, offset);
+            if (digit != 0) {
+                this.context.multiply(result, this.table[i][digit], result, scratch);
+            }
+        }
+        return this.context.fromMontgomery(result, workspace);
+    }
+
+    public BigInteger getBase() {
+        return base;
+    }
+
+    public BigInteger getModulus() {
+        return context.getModulus();
+    }
+
+    public MontgomeryContext getContext() {
+        return context;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public int getExponentBits() {
+        return exponentBits;
+    }
+
+    /**
+     * @return approximated memory used by the residues held in the table, in bytes
+     */
+    public long getMemoryFootprint() {
+        return estimateMemoryFootprint(this.context.getModulus().bitLength(), this.exponentBits, this.window);
+    }
+
+    /**
+     * Estimates memory required by the table for given parameters.
+     *
+     * @param modulusBits  bit length of the modulus
+     * @param exponentBits maximal bit length of the exponent
+     * @param window       window width
+     * @return approximated amount of bytes
+     */
+    public static long estimateMemoryFootprint(int modulusBits, int exponentBits, int window) {
+        long rows = (exponentBits + window - 1) / window;
+        return rows * ((1L << window) - 1) * ((modulusBits + 7) / 8);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("FixedBaseTable{");
+        sb.append("window=").append(window);
+        sb.append(", exponentBits=").append(exponentBits);
+        sb.append(", memory=").append(this.getMemoryFootprint());
+        sb.append('}');
+        return sb.toString();
+    }
+}
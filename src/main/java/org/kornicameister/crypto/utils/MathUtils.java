@@ -17,11 +17,21 @@ import java.util.Random;
 public class MathUtils {
     public static final BigInteger INTEGER_2 = new BigInteger("2");
 
-    enum Method {
+    /**
+     * Exponentiation engines. Modular ones are selected in
+     * {@link MathUtils#powMod(BigInteger, BigInteger, BigInteger, Method)}:
+     * <ul>
+     * <li>BASIC - square and multiply on {@link BigInteger}, see {@link MathUtils#powModFast}</li>
+     * <li>MONTGOMERY - Montgomery multiplication and sliding windows, see {@link MontgomeryContext}</li>
+     * </ul>
+     */
+    public enum Method {
         BASIC,
         MONTGOMERY
     }
 
+    public static final Method DEFAULT_METHOD = Method.MONTGOMERY;
+
     private static BigInteger fastExponentiationBasic(int n, BigInteger x) {
         if (n == 1) {
             return x;
@@ -33,15 +43,15 @@ public class MathUtils {
                 .fastExponentiationBasic((n - 1) / 2, x.pow(2)));
     }
 
-    // @TODO not working
+    // Montgomery ladder, scans bits of the exponent
     private static BigInteger fastExponentiationMontgomery(int exponent, BigInteger base) {
-        int bitLength = base.bitLength();
-        if (!base.testBit(bitLength - 1)) {
-            return base;
+        if (exponent == 0) {
+            return BigInteger.ONE;
         }
+        int bitLength = 32 - Integer.numberOfLeadingZeros(exponent);
         BigInteger x1 = base, x2 = base.pow(2);
         for (int i = bitLength - 2; i >= 0; i--) {
-            if (!base.testBit(i)) {
+            if ((exponent & (1 << i)) == 0) {
                 x2 = x1.multiply(x2);
                 x1 = x1.pow(2);
             } else {
@@ -74,6 +84,36 @@ public class MathUtils {
         return result;
     }
 
+    /**
+     * Computes <verb>base^exponent mod modulus</verb> with {@link MathUtils#DEFAULT_METHOD}.
+     *
+     * @see MathUtils#powMod(BigInteger, BigInteger, BigInteger, Method)
+     */
+    public static BigInteger powMod(BigInteger base, BigInteger exponent, BigInteger modulus) {
+        return powMod(base, exponent, modulus, DEFAULT_METHOD);
+    }
+
+    /**
+     * Computes <verb>base^exponent mod modulus</verb> with selected engine.
+     * Montgomery requires odd modulus, for even ones basic method is used.
+     * Negative exponent is computed as the power of the base's inverse.
+     *
+     * @param base     base
+     * @param exponent exponent
+     * @param modulus  positive modulus
+     * @param method   exponentiation engine
+     * @return power
+     */
+    public static BigInteger powMod(BigInteger base, BigInteger exponent, BigInteger modulus, Method method) {
+        if (exponent.signum() < 0) {
+            return powMod(base.modInverse(modulus), exponent.negate(), modulus, method);
+        }
+        if (method == Method.MONTGOMERY && modulus.testBit(0) && modulus.compareTo(BigInteger.ONE) > 0) {
+            return MontgomeryContext.forModulus(modulus).pow(base, exponent);
+        }
+        return powModFast(base, exponent, modulus);
+    }
+
     public static BigInteger powModFast(BigInteger a, BigInteger b, BigInteger q) {
         BigInteger i, result, x;
         result = BigInteger.ONE;
@@ -90,6 +130,90 @@ public class MathUtils {
         return result;
     }
 
+    /**
+     * Computes <verb>(a^x * b^y) mod m</verb> with simultaneous exponentiation
+     * (Straus/Shamir trick). Both exponents are scanned in fixed windows from the most
+     * significant one and share the single chain of squarings, therefore cost
+     * is about the one of the single exponentiation plus one multiplication
+     * per window of each exponent.
+     *
+     * @param a first base
+     * @param x first exponent
+     * @param b second base
+     * @param y second exponent
+     * @param m modulus
+     * @return (a^x * b^y) mod m
+     */
+    public static BigInteger powModDual(BigInteger a, BigInteger x, BigInteger b, BigInteger y, BigInteger m) {
+        return powModDual(a, x, b, y, m, DEFAULT_METHOD);
+    }
+
+    /**
+     * @param method exponentiation engine, Montgomery requires odd modulus
+     * @see MathUtils#powModDual(BigInteger, BigInteger, BigInteger, BigInteger, BigInteger)
+     */
+    public static BigInteger powModDual(BigInteger a, BigInteger x, BigInteger b, BigInteger y, BigInteger m,
+                                        Method method) {
+        if (x.signum() < 0 || y.signum() < 0) {
+            return powMod(a, x, m, method).multiply(powMod(b, y, m, method)).mod(m);
+        }
+        if (method == Method.MONTGOMERY && m.testBit(0) && m.compareTo(BigInteger.ONE) > 0) {
+            return MontgomeryContext.forModulus(m).powDual(a, x, b, y);
+        }
+        int bitLength = Math.max(x.bitLength(), y.bitLength());
+        int window = dualWindow(bitLength);
+        BigInteger[] aPowers = windowPowers(a.mod(m), m, window);
+        BigInteger[] bPowers = windowPowers(b.mod(m), m, window);
+
+        BigInteger result = BigInteger.ONE;
+        int windows = (bitLength + window - 1) / window;
+        for (int i = windows - 1; i >= 0; i--) {
+            for (int j = 0; j < window && i != windows - 1; j++) {
+                result = result.multiply(result).mod(m);
+            }
+            int xDigit = windowDigit(x, i * window, window);
+            int yDigit = windowDigit(y, i * window, window);
+            if (xDigit != 0) {
+                result = result.multiply(aPowers[xDigit]).mod(m);
+            }
+            if (yDigit != 0) {
+                result = result.multiply(bPowers[yDigit]).mod(m);
+            }
+        }
+        return result.mod(m);
+    }
+
+    private static int dualWindow(int bitLength) {
+        if (bitLength > 512) {
+            return 5;
+        } else if (bitLength > 128) {
+            return 4;
+        } else if (bitLength > 32) {
+            return 3;
+        }
+        return 2;
+    }
+
+    private static BigInteger[] windowPowers(BigInteger base, BigInteger m, int window) {
+        BigInteger[] powers = new BigInteger[1 << window];
+        powers[0] = BigInteger.ONE;
+        for (int i = 1; i < powers.length; i++) {
+            powers[i] = powers[i - 1].multiply(base).mod(m);
+        }
+        return powers;
+    }
+
+    private static int windowDigit(BigInteger exponent, int offset, int window) {
+        int digit = 0;
+        for (int bit = window - 1; bit >= 0; bit--) {
+            digit <<= 1;
+            if (exponent.testBit(offset + bit)) {
+                digit |= 1;
+            }
+        }
+        return digit;
+    }
+
     public static boolean isOdd(BigInteger base) {
         return !org.kornicameister.crypto.utils.MathUtils.isEven(base);
     }
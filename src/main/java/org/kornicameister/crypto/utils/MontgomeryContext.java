@@ -0,0 +1,559 @@
+package org.kornicameister.crypto.utils;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Modular arithmetic in Montgomery representation for a single, odd modulus.
+ * Numbers are kept as little-endian arrays of 32-bit limbs, each of them
+ * of the modulus' length, and multiplication is done with the CIOS
+ * (coarsely integrated operand scanning) method, so no division is ever made.
+ * <p/>
+ * Exponentiation scans the exponent with sliding windows, hence only odd
+ * powers of the base are precomputed.
+ * <p/>
+ * Width of the numbers is fixed by the modulus, i.e. 32, 64 or 96 limbs for
+ * the moduli of {@link org.kornicameister.crypto.schnorr.SComplexity}. All
+ * intermediate values live in per-thread {@link Workspace} allocated once
+ * for that width, so exponentiation allocates only its input and output conversions.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class MontgomeryContext {
+    private static final long LIMB_MASK = 0xFFFFFFFFL;
+    private static final int[] WINDOW_THRESHOLDS = {7, 25, 81, 241, 673, 1793};
+    private static final int MAX_CONTEXTS = 16;
+    private static final ConcurrentMap<BigInteger, MontgomeryContext> CONTEXTS = new ConcurrentHashMap<>();
+    private final BigInteger modulus;
+    private final int length;
+    private final int[] n;
+    private final int n0Inv;
+    private final int[] rSquared;
+    private final int[] one;
+    private final ThreadLocal<Workspace> workspaces;
+
+    /**
+     * Creates context for given modulus.
+     *
+     * @param modulus odd modulus greater than one
+     * @throws IllegalArgumentException if modulus is even or not greater than one
+     */
+    public MontgomeryContext(BigInteger modulus) {
+        if (!modulus.testBit(0) || modulus.compareTo(BigInteger.ONE) <= 0) {
+            throw new IllegalArgumentException("Montgomery modulus must be odd and greater than one");
+        }
+        this.modulus = modulus;
+        this.length = (modulus.bitLength() + 31) >>> 5;
+        this.n = toLimbs(modulus, this.length);
+
+        // Newton iteration for n[0]^-1 mod 2^32, each step doubles correct bits
+        int inv = this.n[0];
+        for (int i = 0; i < 5; i++) {
+            inv *= 2 - this.n[0] * inv;
+        }
+        this.n0Inv = -inv;
+
+        BigInteger r = BigInteger.ONE.shiftLeft(32 * this.length);
+        this.one = toLimbs(r.mod(modulus), this.length);
+        this.rSquared = toLimbs(r.multiply(r).mod(modulus), this.length);
+        this.workspaces = this.newWorkspaces();
+    }
+
+    /**
+     * Restores context written by {@link MontgomeryContext#write(DataOutput)}, constants are not recomputed.
+     */
+    private MontgomeryContext(BigInteger modulus, int n0Inv, int[] one, int[] rSquared) {
+        this.modulus = modulus;
+        this.length = one.length;
+        this.n = toLimbs(modulus, this.length);
+        this.n0Inv = n0Inv;
+        this.one = one;
+        this.rSquared = rSquared;
+        this.workspaces = this.newWorkspaces();
+    }
+
+    private ThreadLocal<Workspace> newWorkspaces() {
+        return new ThreadLocal<Workspace>() {
+            @Override
+            protected Workspace initialValue() {
+                return new Workspace(length);
+            }
+        };
+    }
+
+    /**
+     * Writes the constants of the context, modulus is not written.
+     *
+     * @param out output
+     * @throws IOException
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(this.length);
+        out.writeInt(this.n0Inv);
+        writeLimbs(out, this.one);
+        writeLimbs(out, this.rSquared);
+    }
+
+    /**
+     * Reads the context written by {@link MontgomeryContext#write(DataOutput)} and shares it,
+     * see {@link MontgomeryContext#forModulus(BigInteger)}.
+     *
+     * @param buffer  buffer positioned at the context
+     * @param modulus modulus the context was written for
+     * @return context
+     * @throws IllegalArgumentException if context was written for different modulus
+     */
+    public static MontgomeryContext read(ByteBuffer buffer, BigInteger modulus) {
+        int length = buffer.getInt();
+        if (length != (modulus.bitLength() + 31) >>> 5 || !modulus.testBit(0)) {
+            throw new IllegalArgumentException(String.format("Context of %d limbs does not match the modulus", length));
+        }
+        int n0Inv = buffer.getInt();
+        MontgomeryContext context = new MontgomeryContext(modulus, n0Inv,
+                readLimbs(buffer, length), readLimbs(buffer, length));
+        if (CONTEXTS.size() >= MAX_CONTEXTS) {
+            CONTEXTS.clear();
+        }
+        MontgomeryContext existing = CONTEXTS.putIfAbsent(modulus, context);
+        return existing != null ? existing : context;
+    }
+
+    static void writeLimbs(DataOutput out, int[] limbs) throws IOException {
+        for (int limb : limbs) {
+            out.writeInt(limb);
+        }
+    }
+
+    static int[] readLimbs(ByteBuffer buffer, int length) {
+        int[] limbs = new int[length];
+        buffer.asIntBuffer().get(limbs);
+        buffer.position(buffer.position() + 4 * length);
+        return limbs;
+    }
+
+    /**
+     * Returns shared context of the modulus, so that its constants and
+     * workspaces are not recomputed on every call.
+     *
+     * @param modulus odd modulus greater than one
+     * @return context
+     */
+    public static MontgomeryContext forModulus(BigInteger modulus) {
+        MontgomeryContext context = CONTEXTS.get(modulus);
+        if (context == null) {
+            if (CONTEXTS.size() >= MAX_CONTEXTS) {
+                CONTEXTS.clear();
+            }
+            context = new MontgomeryContext(modulus);
+            MontgomeryContext existing = CONTEXTS.putIfAbsent(modulus, context);
+            context = existing != null ? existing : context;
+        }
+        return context;
+    }
+
+    /**
+     * @return workspace of the current thread
+     */
+    Workspace workspace() {
+        return this.workspaces.get();
+    }
+
+    public BigInteger getModulus() {
+        return modulus;
+    }
+
+    /**
+     * @return amount of 32-bit limbs of every number in this context
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return new array holding Montgomery representation of the one
+     */
+    public int[] one() {
+        return this.one.clone();
+    }
+
+    /**
+     * Converts number to Montgomery representation, <verb>x * R mod n</verb>.
+     *
+     * @param x number
+     * @return Montgomery representation of x
+     */
+    public int[] toMontgomery(BigInteger x) {
+        int[] result = new int[this.length];
+        this.toMontgomery(x, result, this.workspace());
+        return result;
+    }
+
+    void toMontgomery(BigInteger x, int[] out, Workspace workspace) {
+        if (x.signum() < 0 || x.compareTo(this.modulus) >= 0) {
+            x = x.mod(this.modulus);
+        }
+        toLimbs(x, workspace.limbs);
+        this.multiply(workspace.limbs, this.rSquared, out, workspace.scratch);
+    }
+
+    /**
+     * Converts number back from Montgomery representation.
+     *
+     * @param x Montgomery representation
+     * @return number
+     */
+    public BigInteger fromMontgomery(int[] x) {
+        return this.fromMontgomery(x, this.workspace());
+    }
+
+    BigInteger fromMontgomery(int[] x, Workspace workspace) {
+        this.multiply(x, workspace.unit, workspace.limbs, workspace.scratch);
+        return toBigInteger(workspace.limbs);
+    }
+
+    /**
+     * Montgomery multiplication <verb>out = a * b * R^-1 mod n</verb>.
+     * Output may be the same array as any of the inputs.
+     *
+     * @param a       first factor
+     * @param b       second factor
+     * @param out     result
+     * @param scratch working array of at least {@link #getLength()} + 2 limbs
+     */
+    public void multiply(int[] a, int[] b, int[] out, int[] scratch) {
+        final int s = this.length;
+        final int[] t = scratch;
+        final int[] n = this.n;
+        for (int i = 0; i < s + 2; i++) {
+            t[i] = 0;
+        }
+
+        for (int i = 0; i < s; i++) {
+            long carry = 0;
+            long bi = b[i] & LIMB_MASK;
+            for (int j = 0; j < s; j++) {
+                long sum = (a[j] & LIMB_MASK) * bi + (t[j] & LIMB_MASK) + carry;
+                t[j] = (int) sum;
+                carry = sum >>> 32;
+            }
+            long sum = (t[s] & LIMB_MASK) + carry;
+            t[s] = (int) sum;
+            t[s + 1] = (int) (sum >>> 32);
+
+            long m = (t[0] * this.n0Inv) & LIMB_MASK;
+            carry = ((t[0] & LIMB_MASK) + m * (n[0] & LIMB_MASK)) >>> 32;
+            for (int j = 1; j < s; j++) {
+                sum = (t[j] & LIMB_MASK) + m * (n[j] & LIMB_MASK) + carry;
+                t[j - 1] = (int) sum;
+                carry = sum >>> 32;
+            }
+            sum = (t[s] & LIMB_MASK) + carry;
+            t[s - 1] = (int) sum;
+            t[s] = t[s + 1] + (int) (sum >>> 32);
+        }
+
+        if (t[s] != 0 || compare(t, n, s) >= 0) {
+            long borrow = 0;
+            for (int j = 0; j < s; j++) {
+                long diff = (t[j] & LIMB_MASK) - (n[j] & LIMB_MASK) - borrow;
+                out[j] = (int) diff;
+                borrow = (diff >>> 63);
+            }
+        } else {
+            System.arraycopy(t, 0, out, 0, s);
+        }
+    }
+
+    /**
+     * Modular addition <verb>out = a + b mod n</verb> of reduced numbers, in either representation.
+     * Output may be the same array as any of the inputs.
+     */
+    public void add(int[] a, int[] b, int[] out) {
+        final int s = this.length;
+        long carry = 0;
+        for (int j = 0; j < s; j++) {
+            long sum = (a[j] & LIMB_MASK) + (b[j] & LIMB_MASK) + carry;
+            out[j] = (int) sum;
+            carry = sum >>> 32;
+        }
+        if (carry != 0 || compare(out, this.n, s) >= 0) {
+            long borrow = 0;
+            for (int j = 0; j < s; j++) {
+                long diff = (out[j] & LIMB_MASK) - (this.n[j] & LIMB_MASK) - borrow;
+                out[j] = (int) diff;
+                borrow = diff >>> 63;
+            }
+        }
+    }
+
+    /**
+     * Modular subtraction <verb>out = a - b mod n</verb> of reduced numbers, in either representation.
+     * Output may be the same array as any of the inputs.
+     */
+    public void subtract(int[] a, int[] b, int[] out) {
+        final int s = this.length;
+        long borrow = 0;
+        for (int j = 0; j < s; j++) {
+            long diff = (a[j] & LIMB_MASK) - (b[j] & LIMB_MASK) - borrow;
+            out[j] = (int) diff;
+            borrow = diff >>> 63;
+        }
+        if (borrow != 0) {
+            long carry = 0;
+            for (int j = 0; j < s; j++) {
+                long sum = (out[j] & LIMB_MASK) + (this.n[j] & LIMB_MASK) + carry;
+                out[j] = (int) sum;
+                carry = sum >>> 32;
+            }
+        }
+    }
+
+    /**
+     * Computes <verb>base^exponent mod n</verb> with sliding window method.
+     *
+     * @param base     base
+     * @param exponent non-negative exponent
+     * @return power
+     */
+    public BigInteger pow(BigInteger base, BigInteger exponent) {
+        assert exponent.signum() >= 0;
+        Workspace workspace = this.workspace();
+        int[] result = workspace.result(this.one);
+        int window = windowFor(exponent.bitLength());
+        int[][] oddPowers = this.oddPowers(base, window, workspace, 0);
+
+        this.slidingWindow(result, exponent, oddPowers, window, workspace.scratch);
+        return this.fromMontgomery(result, workspace);
+    }
+
+    /**
+     * Computes <verb>(a^x * b^y) mod n</verb>. Both exponents are recoded
+     * into sliding windows independently, but share the single chain of squarings.
+     *
+     * @param a first base
+     * @param x first non-negative exponent
+     * @param b second base
+     * @param y second non-negative exponent
+     * @return (a^x * b^y) mod n
+     */
+    public BigInteger powDual(BigInteger a, BigInteger x, BigInteger b, BigInteger y) {
+        assert x.signum() >= 0 && y.signum() >= 0;
+        Workspace workspace = this.workspace();
+        int[] scratch = workspace.scratch;
+        int[] result = workspace.result(this.one);
+        int bitLength = Math.max(x.bitLength(), y.bitLength());
+        int window = windowFor(bitLength) > 1 ? windowFor(bitLength) - 1 : 1;
+        int[][] aPowers = this.oddPowers(a, window, workspace, 0);
+        int[][] bPowers = this.oddPowers(b, window, workspace, 1);
+
+        // position at which pending window of each exponent ends, -1 if there is none
+        int xEnd = -1, yEnd = -1, xDigit = 0, yDigit = 0;
+        boolean started = false;
+        for (int i = bitLength - 1; i >= 0; i--) {
+            if (started) {
+                this.multiply(result, result, result, scratch);
+            }
+            if (xEnd < 0 && x.testBit(i)) {
+                xEnd = windowEnd(x, i, window);
+                xDigit = windowValue(x, i, xEnd);
+            }
+            if (yEnd < 0 && y.testBit(i)) {
+                yEnd = windowEnd(y, i, window);
+                yDigit = windowValue(y, i, yEnd);
+            }
+            if (xEnd == i) {
+                this.multiply(result, aPowers[xDigit >>> 1], result, scratch);
+                xEnd = -1;
+                started = true;
+            }
+            if (yEnd == i) {
+                this.multiply(result, bPowers[yDigit >>> 1], result, scratch);
+                yEnd = -1;
+                started = true;
+            }
+        }
+        return this.fromMontgomery(result, workspace);
+    }
+
+    void slidingWindow(int[] result, BigInteger exponent, int[][] oddPowers, int window, int[] scratch) {
+        boolean started = false;
+        int i = exponent.bitLength() - 1;
+        while (i >= 0) {
+            if (!exponent.testBit(i)) {
+                if (started) {
+                    this.multiply(result, result, result, scratch);
+                }
+                i--;
+                continue;
+            }
+            int end = windowEnd(exponent, i, window);
+            int value = windowValue(exponent, i, end);
+            if (started) {
+                for (int j = i; j >= end; j--) {
+                    this.multiply(result, result, result, scratch);
+                }
+            }
+            this.multiply(result, oddPowers[value >>> 1], result, scratch);
+            started = true;
+            i = end - 1;
+        }
+    }
+
+    /**
+     * Odd powers of the base, kept in the workspace's slot.
+     */
+    int[][] oddPowers(BigInteger base, int window, Workspace workspace, int slot) {
+        int[][] powers = workspace.powers(slot, 1 << (window - 1));
+        this.toMontgomery(base, powers[0], workspace);
+        if (window > 1) {
+            this.multiply(powers[0], powers[0], workspace.square, workspace.scratch);
+            for (int i = 1; i < 1 << (window - 1); i++) {
+                this.multiply(powers[i - 1], workspace.square, powers[i], workspace.scratch);
+            }
+        }
+        return powers;
+    }
+
+    /**
+     * Finds the lowest bit of the window starting at the set bit <b>start</b>,
+     * so that window is at most <b>window</b> bits wide and ends with set bit.
+     */
+    static int windowEnd(BigInteger exponent, int start, int window) {
+        int end = Math.max(start - window + 1, 0);
+        while (!exponent.testBit(end)) {
+            end++;
+        }
+        return end;
+    }
+
+    static int windowValue(BigInteger exponent, int start, int end) {
+        int value = 0;
+        for (int j = start; j >= end; j--) {
+            value = (value << 1) | (exponent.testBit(j) ? 1 : 0);
+        }
+        return value;
+    }
+
+    static int windowFor(int bitLength) {
+        int window = 1;
+        while (window <= WINDOW_THRESHOLDS.length && bitLength > WINDOW_THRESHOLDS[window - 1]) {
+            window++;
+        }
+        return window;
+    }
+
+    private static int compare(int[] a, int[] b, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (a[i] != b[i]) {
+                return (a[i] & LIMB_MASK) < (b[i] & LIMB_MASK) ? -1 : 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Converts non-negative number to little-endian limbs.
+     *
+     * @param x      number smaller than 2^(32 * length)
+     * @param length amount of limbs
+     * @return limbs
+     */
+    public static int[] toLimbs(BigInteger x, int length) {
+        int[] limbs = new int[length];
+        toLimbs(x, limbs);
+        return limbs;
+    }
+
+    /**
+     * Converts non-negative number to little-endian limbs, overwriting given array.
+     *
+     * @param x     number smaller than 2^(32 * limbs.length)
+     * @param limbs limbs
+     */
+    public static void toLimbs(BigInteger x, int[] limbs) {
+        for (int i = 0; i < limbs.length; i++) {
+            limbs[i] = 0;
+        }
+        byte[] bytes = x.toByteArray();
+        for (int i = 0; i < bytes.length && (i >>> 2) < limbs.length; i++) {
+            limbs[i >>> 2] |= (bytes[bytes.length - 1 - i] & 0xFF) << ((i & 3) << 3);
+        }
+    }
+
+    /**
+     * Converts little-endian limbs back to non-negative number.
+     *
+     * @param limbs limbs
+     * @return number
+     */
+    public static BigInteger toBigInteger(int[] limbs) {
+        byte[] bytes = new byte[limbs.length << 2];
+        for (int i = 0; i < limbs.length; i++) {
+            int limb = limbs[limbs.length - 1 - i];
+            bytes[(i << 2)] = (byte) (limb >>> 24);
+            bytes[(i << 2) + 1] = (byte) (limb >>> 16);
+            bytes[(i << 2) + 2] = (byte) (limb >>> 8);
+            bytes[(i << 2) + 3] = (byte) limb;
+        }
+        return new BigInteger(1, bytes);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("MontgomeryContext{");
+        sb.append("bitLength=").append(modulus.bitLength());
+        sb.append(", limbs=").append(length);
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Arrays reused by every operation of single thread. Odd powers are kept
+     * in two slots, as dual exponentiation needs powers of both bases at once.
+     */
+    static final class Workspace {
+        final int[] scratch;
+        final int[] result;
+        final int[] square;
+        final int[] limbs;
+        final int[] unit;
+        private final int length;
+        private final int[][][] powers;
+
+        private Workspace(int length) {
+            this.length = length;
+            this.scratch = new int[length + 2];
+            this.result = new int[length];
+            this.square = new int[length];
+            this.limbs = new int[length];
+            this.unit = new int[length];
+            this.unit[0] = 1;
+            this.powers = new int[2][0][];
+        }
+
+        /**
+         * @return result array reset to given value
+         */
+        int[] result(int[] value) {
+            System.arraycopy(value, 0, this.result, 0, this.length);
+            return this.result;
+        }
+
+        int[][] powers(int slot, int count) {
+            if (this.powers[slot].length < count) {
+                int[][] grown = new int[count][];
+                System.arraycopy(this.powers[slot], 0, grown, 0, this.powers[slot].length);
+                for (int i = this.powers[slot].length; i < count; i++) {
+                    grown[i] = new int[this.length];
+                }
+                this.powers[slot] = grown;
+            }
+            return this.powers[slot];
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.kornicameister.crypto.utils;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Sieve of the window of arithmetic progression <verb>start + k * step</verb>,
+ * for <verb>0 <= k < length</verb>, against all primes smaller than {@value #SIEVE_LIMIT}.
+ * Candidates having small prime factor are marked as composite, so that
+ * expensive {@link BigInteger#isProbablePrime(int)} is called only for the survivors.
+ * <p/>
+ * Candidates are expected to be greater than {@value #SIEVE_LIMIT}, otherwise
+ * small prime itself would be marked as composite.
+ *
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class PrimeSieve {
+    public static final int SIEVE_LIMIT = 1 << 16;
+    private static final int[] SMALL_PRIMES = smallPrimes(SIEVE_LIMIT);
+    private static final long[] PRIME_PRODUCTS;
+    private static final int[] PRODUCT_ENDS;
+    private final BigInteger start;
+    private final BigInteger step;
+    private final int length;
+    private final BitSet composites;
+
+    static {
+        // products of consecutive small primes fitting in long, one BigInteger division
+        // gives then residues of all of them
+        long[] products = new long[SMALL_PRIMES.length];
+        int[] ends = new int[SMALL_PRIMES.length];
+        int count = 0;
+        long product = 1;
+        for (int i = 0; i < SMALL_PRIMES.length; i++) {
+            if (product > Long.MAX_VALUE / SMALL_PRIMES[i]) {
+                products[count] = product;
+                ends[count++] = i;
+                product = 1;
+            }
+            product *= SMALL_PRIMES[i];
+        }
+        products[count] = product;
+        ends[count++] = SMALL_PRIMES.length;
+        PRIME_PRODUCTS = Arrays.copyOf(products, count);
+        PRODUCT_ENDS = Arrays.copyOf(ends, count);
+    }
+
+    /**
+     * Sieves the window.
+     *
+     * @param start  first candidate
+     * @param step   difference between consecutive candidates
+     * @param length amount of candidates
+     */
+    public PrimeSieve(BigInteger start, BigInteger step, int length) {
+        this.start = start;
+        this.step = step;
+        this.length = length;
+        this.composites = new BitSet(length);
+
+        long[] startResidues = residues(start);
+        long[] stepResidues = residues(step);
+        for (int i = 0; i < SMALL_PRIMES.length; i++) {
+            int prime = SMALL_PRIMES[i];
+            long r = startResidues[i];
+            long s = stepResidues[i];
+            if (s == 0) {
+                if (r == 0) {
+                    this.composites.set(0, length);
+                    return;
+                }
+                continue;
+            }
+            // first k such that r + k * s = 0 mod prime
+            long k = ((prime - r) * modInverse(s, prime)) % prime;
+            for (; k < length; k += prime) {
+                this.composites.set((int) k);
+            }
+        }
+    }
+
+    /**
+     * @param from index to start search from
+     * @return index of next candidate that survived sieving or -1 if there is none
+     */
+    public int nextCandidate(int from) {
+        int index = this.composites.nextClearBit(from);
+        return index < this.length ? index : -1;
+    }
+
+    /**
+     * @param index index of the candidate
+     * @return candidate, <verb>start + index * step</verb>
+     */
+    public BigInteger candidate(int index) {
+        return this.start.add(this.step.multiply(BigInteger.valueOf(index)));
+    }
+
+    /**
+     * @return amount of candidates that survived sieving
+     */
+    public int survivors() {
+        return this.length - this.composites.cardinality();
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    private static long[] residues(BigInteger value) {
+        long[] residues = new long[SMALL_PRIMES.length];
+        int from = 0;
+        for (int i = 0; i < PRIME_PRODUCTS.length; i++) {
+            long residue = value.mod(BigInteger.valueOf(PRIME_PRODUCTS[i])).longValue();
+            for (int j = from; j < PRODUCT_ENDS[i]; j++) {
+                residues[j] = residue % SMALL_PRIMES[j];
+            }
+            from = PRODUCT_ENDS[i];
+        }
+        return residues;
+    }
+
+    private static long modInverse(long value, long modulus) {
+        long t = 0, newT = 1, r = modulus, newR = value;
+        while (newR != 0) {
+            long quotient = r / newR;
+            long tmp = t - quotient * newT;
+            t = newT;
+            newT = tmp;
+            tmp = r - quotient * newR;
+            r = newR;
+            newR = tmp;
+        }
+        return t < 0 ? t + modulus : t;
+    }
+
+    private static int[] smallPrimes(int limit) {
+        BitSet composite = new BitSet(limit);
+        int count = 0;
+        int[] primes = new int[limit];
+        for (int i = 2; i < limit; i++) {
+            if (!composite.get(i)) {
+                primes[count++] = i;
+                for (long j = (long) i * i; j < limit; j += i) {
+                    composite.set((int) j);
+                }
+            }
+        }
+        return Arrays.copyOf(primes, count);
+    }
+}
@@ -0,0 +1,71 @@
+package org.kornicameister.crypto.schnorr;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kornicameister.crypto.utils.FixedBaseTable;
+import org.kornicameister.crypto.utils.Pair;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class CommitmentPoolTest {
+    private static final int K_BITS = 159;
+    private FixedBaseTable table;
+    private CommitmentPool pool;
+
+    @Before
+    public void setUp() throws Exception {
+        Random random = new SecureRandom();
+        BigInteger p = BigInteger.probablePrime(512, random);
+        this.table = new FixedBaseTable(new BigInteger(511, random), p, K_BITS, 4);
+        this.pool = new CommitmentPool(this.table, K_BITS, 4, 16, 2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.pool.close();
+    }
+
+    @Test
+    public void testTakeUniqueValidCommitments() throws Exception {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (this.pool.size() < this.pool.getHighWatermark() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue("Pool has not been filled", this.pool.size() >= this.pool.getHighWatermark());
+
+        Set<BigInteger> used = new HashSet<>();
+        for (int i = 0; i < 64; i++) {
+            Pair<BigInteger, BigInteger> commitment = this.pool.take();
+            if (commitment == null) {
+                continue;
+            }
+            Assert.assertTrue("Commitment handed out twice", used.add(commitment.getFirst()));
+            Assert.assertEquals(this.table.pow(commitment.getFirst()), commitment.getSecond());
+        }
+        Assert.assertEquals(used.size(), this.pool.getTakenCount());
+        Assert.assertEquals(64 - used.size(), this.pool.getEmptyCount());
+    }
+
+    @Test
+    public void testEmptyPool() throws Exception {
+        this.pool.close();
+
+        Assert.assertNull(this.pool.take());
+        Assert.assertEquals(1, this.pool.getEmptyCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWatermarks() throws Exception {
+        new CommitmentPool(this.table, K_BITS, 8, 8, 1);
+    }
+}
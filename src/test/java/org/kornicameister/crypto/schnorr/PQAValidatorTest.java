@@ -0,0 +1,65 @@
+package org.kornicameister.crypto.schnorr;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kornicameister.crypto.schnorr.exception.PQAValidationException;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class PQAValidatorTest {
+    private Path cacheFile;
+
+    @Before
+    public void setUp() throws Exception {
+        this.cacheFile = Files.createTempFile("schnorr", ".validated");
+        Files.delete(this.cacheFile);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(this.cacheFile);
+    }
+
+    @Test
+    public void testValidateCached() throws Exception {
+        SAlgorithmPQA pqa = SParameters.RFC5114_1024_160.getPQA();
+
+        PQAValidator validator = new PQAValidator(this.cacheFile, 4);
+        assertTrue(validator.validate(pqa));
+        assertFalse(validator.validate(pqa));
+
+        PQAValidator restarted = new PQAValidator(this.cacheFile, 4);
+        assertTrue(restarted.isValidated(pqa));
+        assertFalse(restarted.validate(pqa));
+    }
+
+    @Test
+    public void testInvalidSubgroup() throws Exception {
+        SAlgorithmPQA valid = SParameters.RFC5114_1024_160.getPQA();
+        SAlgorithmPQA pqa = SAlgorithmPQA.of(valid.getComplexity(), valid.getP(), valid.getQ(),
+                valid.getA().add(BigInteger.ONE));
+        PQAValidator validator = new PQAValidator(this.cacheFile, 4);
+        try {
+            validator.validate(pqa);
+            fail("Invalid a was accepted");
+        } catch (PQAValidationException ignored) {
+        }
+        assertFalse(validator.isValidated(pqa));
+        assertFalse(Files.exists(this.cacheFile));
+    }
+
+    @Test(expected = PQAValidationException.class)
+    public void testComplexityMismatch() throws Exception {
+        SAlgorithmPQA valid = SParameters.RFC5114_1024_160.getPQA();
+        new PQAValidator(null, 4).validate(SAlgorithmPQA.of(SComplexity.S_512, valid.getP(), valid.getQ(), valid.getA()));
+    }
+}
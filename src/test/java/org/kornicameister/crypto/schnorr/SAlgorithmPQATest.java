@@ -6,7 +6,12 @@ import org.kornicameister.crypto.SchnorrTest;
 import org.kornicameister.crypto.schnorr.exception.PQAGenerationException;
 
 import java.io.FileInputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Properties;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -59,4 +64,32 @@ public class SAlgorithmPQATest extends SchnorrTest {
                 pqa.getQ().isProbablePrime(this.certainty));
 
     }
+
+    @Test
+    public void testBinaryFile() throws Exception {
+        Path file = Files.createTempFile("schnorr", ".pqa");
+        try {
+            this.pqa.toBinaryFile(file);
+            SAlgorithmPQA loaded = SAlgorithmPQA.loadFromBinaryFile(file);
+
+            assertEquals(this.pqa.getP(), loaded.getP());
+            assertEquals(this.pqa.getQ(), loaded.getQ());
+            assertEquals(this.pqa.getA(), loaded.getA());
+            assertEquals(this.pqa.getComplexity(), loaded.getComplexity());
+
+            BigInteger k = new BigInteger(loaded.getQ().bitLength(), new Random(7)).mod(loaded.getQ());
+            assertEquals(loaded.getA().modPow(k, loaded.getP()), loaded.getFixedBaseTable().pow(k));
+
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length / 2] ^= 1;
+            Files.write(file, bytes);
+            try {
+                SAlgorithmPQA.loadFromBinaryFile(file);
+                fail("Corrupted file was loaded");
+            } catch (IOException ignored) {
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
 }
@@ -4,6 +4,22 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.kornicameister.crypto.SchnorrTest;
+import org.kornicameister.crypto.schnorr.nonce.DeterministicNonceSource;
+import org.kornicameister.crypto.schnorr.store.MappedLogKeyStore;
+import org.kornicameister.crypto.utils.Pair;
+
+import java.io.FileInputStream;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author kornicameister
@@ -33,4 +49,198 @@ public class SAlgorithmTest extends SchnorrTest {
 
         Assert.assertTrue(this.schnorr.verify(this.message, recordId));
     }
+
+    @Test
+    public void testVerifyBatch() throws Exception {
+        List<Pair<String, Integer>> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String message = this.message + i;
+            items.add(new Pair<>(message, this.schnorr.sign(message)));
+        }
+        Assert.assertTrue(this.schnorr.verifyBatch(items).isEmpty());
+
+        Integer tampered = items.get(3).getSecond();
+        items.get(3).setFirst("tampered");
+        List<Integer> failed = this.schnorr.verifyBatch(items);
+        Assert.assertEquals(1, failed.size());
+        Assert.assertEquals(tampered, failed.get(0));
+    }
+
+    @Test
+    public void testConcurrentSignVerify() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            final String message = this.message + i;
+            tasks.add(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    Integer recordId = schnorr.sign(message);
+                    return schnorr.verify(message, recordId) && !schnorr.verify(message + "!", recordId);
+                }
+            });
+        }
+        try {
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSignVerifyFile() throws Exception {
+        Path file = Files.createTempFile("schnorr", ".msg");
+        try {
+            byte[] content = new byte[1 << 20];
+            for (int i = 0; i < content.length; i++) {
+                content[i] = (byte) i;
+            }
+            Files.write(file, content);
+
+            Integer recordId = this.schnorr.sign(file);
+            Assert.assertNotNull(recordId);
+            Assert.assertTrue(this.schnorr.verify(ByteBuffer.wrap(content), recordId));
+            try (FileInputStream stream = new FileInputStream(file.toFile())) {
+                Assert.assertTrue(this.schnorr.verify(stream, recordId));
+            }
+
+            content[0]++;
+            Assert.assertFalse(this.schnorr.verify(ByteBuffer.wrap(content), recordId));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testSignerReused() throws Exception {
+        Integer first = this.schnorr.sign(this.message);
+        Integer second = this.schnorr.sign(this.message + "2");
+        Assert.assertEquals(
+                SchnorrCryptoKey.getSchnorrKey(first, this.sqlitecontroller).getSignerId(),
+                SchnorrCryptoKey.getSchnorrKey(second, this.sqlitecontroller).getSignerId()
+        );
+
+        SchnorrKeyPair signer = this.schnorr.generateKeyPair();
+        this.schnorr.setSigner(signer);
+        Integer third = this.schnorr.sign(this.message);
+        Assert.assertEquals(signer.getPrimaryKey(), SchnorrCryptoKey.getSchnorrKey(third, this.sqlitecontroller).getSignerId());
+        Assert.assertTrue(this.schnorr.verify(this.message, first));
+        Assert.assertTrue(this.schnorr.verify(this.message, third));
+    }
+
+    @Test
+    public void testSignAll() throws Exception {
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            messages.add(this.message + i);
+        }
+        List<Integer> recordIds = this.schnorr.signAll(messages);
+        Assert.assertEquals(messages.size(), recordIds.size());
+        for (int i = 0; i < messages.size(); i++) {
+            Assert.assertTrue(this.schnorr.verify(messages.get(i), recordIds.get(i)));
+        }
+        Assert.assertFalse(this.schnorr.verify(messages.get(0), recordIds.get(1)));
+    }
+
+    @Test
+    public void testWriteBehind() throws Exception {
+        this.schnorr.enableWriteBehind(16, 8, 4);
+        try {
+            List<Integer> recordIds = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                recordIds.add(this.schnorr.sign(this.message + i));
+            }
+            Assert.assertTrue(this.schnorr.verify(this.message + 3, recordIds.get(3)));
+
+            this.schnorr.flush();
+            Assert.assertEquals(0, this.schnorr.getWriteBehind().getQueueSize());
+            Assert.assertEquals(0, this.schnorr.getWriteBehind().getFailedCount());
+            for (int i = 0; i < recordIds.size(); i++) {
+                Assert.assertNotNull(SchnorrCryptoKey.getSchnorrKey(recordIds.get(i), this.sqlitecontroller));
+                Assert.assertTrue(this.schnorr.verify(this.message + i, recordIds.get(i)));
+            }
+        } finally {
+            this.schnorr.disableWriteBehind();
+        }
+        Assert.assertNull(this.schnorr.getWriteBehind());
+    }
+
+    @Test
+    public void testMappedLogKeyStore() throws Exception {
+        Path file = Files.createTempFile("schnorr", ".log");
+        Files.delete(file);
+        MappedLogKeyStore keyStore = new MappedLogKeyStore(file, MappedLogKeyStore.valueBytes(this.schnorr.getPQA()));
+        try {
+            SAlgorithm schnorr = new SAlgorithm(this.schnorr.getPQA(), this.sqlitecontroller, keyStore);
+            Integer recordId = schnorr.sign(this.message);
+            Assert.assertEquals(Integer.valueOf(1), recordId);
+            Assert.assertTrue(schnorr.verify(this.message, recordId));
+            Assert.assertFalse(schnorr.verify(this.message + "!", recordId));
+        } finally {
+            keyStore.close();
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testDeterministicNonce() throws Exception {
+        this.schnorr.setNonceSource(new DeterministicNonceSource());
+        Integer first = this.schnorr.sign(this.message);
+        Integer second = this.schnorr.sign(this.message);
+        Assert.assertTrue(this.schnorr.verify(this.message, first));
+        Assert.assertFalse(this.schnorr.verify(this.message + "!", first));
+        Assert.assertEquals(
+                SchnorrCryptoKey.getSchnorrKey(first, this.sqlitecontroller).getCryptoEPart(),
+                SchnorrCryptoKey.getSchnorrKey(second, this.sqlitecontroller).getCryptoEPart()
+        );
+    }
+
+    @Test
+    public void testEllipticCurve() throws Exception {
+        SAlgorithm schnorr = new SAlgorithm(SParameters.P_256.getPQA(), this.sqlitecontroller);
+        List<Pair<String, Integer>> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String message = this.message + i;
+            items.add(new Pair<>(message, schnorr.sign(message)));
+        }
+        for (Pair<String, Integer> item : items) {
+            Assert.assertTrue(schnorr.verify(item.getFirst(), item.getSecond()));
+            Assert.assertFalse(schnorr.verify(item.getFirst() + "!", item.getSecond()));
+        }
+        Assert.assertTrue(schnorr.verifyBatch(items).isEmpty());
+
+        schnorr.setNonceSource(new DeterministicNonceSource());
+        Integer recordId = schnorr.sign(this.message);
+        Assert.assertTrue(schnorr.verify(this.message, recordId));
+    }
+
+    @Test
+    public void testLegacyMigration() throws Exception {
+        SchnorrKeyPair signer = this.schnorr.getSigner();
+        Integer recordId = this.schnorr.sign(this.message);
+        SchnorrCryptoKey cryptoKey = this.schnorr.getKeyStore().getSchnorrKey(recordId);
+
+        int legacyId = this.sqlitecontroller.reserveIds(SchnorrCryptoKey.class, 1);
+        this.sqlitecontroller.executeInTransaction(Arrays.asList(
+                "create table schnorr3 ( id integer primary key, pub_key blob, priv_key blob, e_factor blob, y_factor blob )",
+                String.format("insert into schnorr3 values ( %d,%s,%s,%s,%s )", legacyId,
+                        this.blob(signer.getPublicKey()), this.blob(signer.getPrivateKey()),
+                        this.blob(cryptoKey.getCryptoEPart()), this.blob(cryptoKey.getCryptoYPart()))
+        ));
+
+        SAlgorithm migrated = new SAlgorithm(this.schnorr.getPQA(), this.sqlitecontroller);
+        Assert.assertFalse(this.sqlitecontroller.hasTable("schnorr3"));
+        Assert.assertTrue(migrated.verify(this.message, legacyId));
+        Assert.assertFalse(migrated.verify(this.message + "!", legacyId));
+    }
+
+    private String blob(BigInteger value) {
+        StringBuilder sb = new StringBuilder("x'");
+        for (byte b : value.toByteArray()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.append('\'').toString();
+    }
 }
@@ -0,0 +1,118 @@
+package org.kornicameister.crypto.schnorr;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class SParametersTest {
+    private static final int CERTAINTY = 64;
+    private static final BigInteger TWO = BigInteger.valueOf(2);
+    private static final int SEED_BYTES = 32;
+
+    @Test
+    public void testParametersAreValid() throws Exception {
+        for (SParameters parameters : SParameters.values()) {
+            SAlgorithmPQA pqa = parameters.getPQA();
+            BigInteger p = pqa.getP();
+            BigInteger q = pqa.getQ();
+            BigInteger a = pqa.getA();
+
+            assertEquals(parameters.name(), parameters.getComplexity().getPBitLength(), p.bitLength());
+            assertEquals(parameters.name(), parameters.getComplexity().getQBitLength(), q.bitLength());
+            assertTrue(parameters.name(), p.isProbablePrime(CERTAINTY));
+            assertTrue(parameters.name(), q.isProbablePrime(CERTAINTY));
+            if (!parameters.getComplexity().isEllipticCurve()) {
+                assertEquals(parameters.name(), BigInteger.ZERO, p.subtract(BigInteger.ONE).mod(q));
+                assertNotEquals(parameters.name(), BigInteger.ONE, a);
+                assertEquals(parameters.name(), BigInteger.ONE, a.modPow(q, p));
+            }
+            assertTrue(parameters.name(), new PQAValidator(null, 1).validate(pqa));
+        }
+    }
+
+    @Test
+    public void testLookup() throws Exception {
+        for (SComplexity complexity : SComplexity.values()) {
+            assertEquals(complexity, SParameters.forComplexity(complexity).getComplexity());
+        }
+        assertSame(SParameters.RFC5114_1024_160, SParameters.forName("rfc5114_1024_160"));
+        assertSame(SParameters.RFC5114_1024_160.getPQA(), SParameters.RFC5114_1024_160.getPQA());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownName() throws Exception {
+        SParameters.forName("RFC5114_512_0");
+    }
+
+    /**
+     * Re-derives the set from its seed, as of FIPS 186-4 appendix A.1.1.3 (p and q)
+     * and A.2.4 (generator) with SHA-256, L = 3072 and N = 256.
+     */
+    @Test
+    public void testFips186Provenance() throws Exception {
+        SAlgorithmPQA pqa = SParameters.FIPS186_3072_256.getPQA();
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        BigInteger seed = new BigInteger(SParameters.FIPS186_3072_256_SEED, 16);
+        int l = 3072;
+        int n = 256;
+        int outlen = 256;
+
+        BigInteger u = hash(sha256, seed).mod(TWO.pow(n - 1));
+        BigInteger q = TWO.pow(n - 1).add(u).add(BigInteger.ONE).subtract(u.mod(TWO));
+        assertEquals(pqa.getQ(), q);
+
+        int blocks = (l + outlen - 1) / outlen - 1;
+        int b = l - 1 - blocks * outlen;
+        BigInteger offset = BigInteger.ONE;
+        BigInteger p = null;
+        for (int i = 0; i <= SParameters.FIPS186_3072_256_COUNTER; i++) {
+            BigInteger w = BigInteger.ZERO;
+            for (int j = 0; j <= blocks; j++) {
+                BigInteger v = hash(sha256, seed.add(offset).add(BigInteger.valueOf(j)));
+                if (j == blocks) {
+                    v = v.mod(TWO.pow(b));
+                }
+                w = w.add(v.shiftLeft(j * outlen));
+            }
+            BigInteger x = w.add(TWO.pow(l - 1));
+            p = x.subtract(x.mod(q.shiftLeft(1)).subtract(BigInteger.ONE));
+            offset = offset.add(BigInteger.valueOf(blocks + 1));
+        }
+        assertEquals(pqa.getP(), p);
+
+        BigInteger e = p.subtract(BigInteger.ONE).divide(q);
+        BigInteger g = BigInteger.ONE;
+        for (int count = 1; g.compareTo(TWO) < 0; count++) {
+            sha256.update(bytes(seed));
+            sha256.update("ggen".getBytes(StandardCharsets.US_ASCII));
+            sha256.update((byte) SParameters.FIPS186_3072_256_INDEX);
+            sha256.update((byte) (count >>> 8));
+            sha256.update((byte) count);
+            g = new BigInteger(1, sha256.digest()).modPow(e, p);
+        }
+        assertEquals(pqa.getA(), g);
+    }
+
+    private static BigInteger hash(MessageDigest digest, BigInteger value) {
+        return new BigInteger(1, digest.digest(bytes(value)));
+    }
+
+    /**
+     * @return value modulo 2^256 as 32 bytes, big-endian
+     */
+    private static byte[] bytes(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[SEED_BYTES];
+        int length = Math.min(bytes.length, SEED_BYTES);
+        System.arraycopy(bytes, bytes.length - length, fixed, SEED_BYTES - length, length);
+        return fixed;
+    }
+}
@@ -0,0 +1,99 @@
+package org.kornicameister.crypto.schnorr.audit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kornicameister.crypto.SchnorrTest;
+import org.kornicameister.crypto.schnorr.SAlgorithm;
+import org.kornicameister.crypto.schnorr.SAlgorithmPQA;
+import org.kornicameister.crypto.schnorr.SComplexity;
+import org.kornicameister.crypto.schnorr.store.MappedLogKeyStore;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class AuditJobTest extends SchnorrTest {
+    private final Map<Integer, String> archive = new ConcurrentHashMap<>();
+    private Path logFile;
+    private Path checkpointFile;
+    private MappedLogKeyStore keyStore;
+    private SAlgorithm schnorr;
+
+    @Override
+    @Before
+    public void setUp() throws Exception {
+        super.setUp();
+        this.logFile = Files.createTempFile("schnorr", ".log");
+        this.checkpointFile = Files.createTempFile("schnorr", ".checkpoint");
+        Files.delete(this.logFile);
+        Files.delete(this.checkpointFile);
+
+        SAlgorithmPQA pqa = SAlgorithmPQA.loadFromProperties(SComplexity.S_320, RESOURCES_MONGO_PROPERTIES);
+        this.keyStore = new MappedLogKeyStore(this.logFile, MappedLogKeyStore.valueBytes(pqa));
+        this.schnorr = new SAlgorithm(pqa, this.sqlitecontroller, this.keyStore);
+    }
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        this.keyStore.close();
+        Files.deleteIfExists(this.logFile);
+        Files.deleteIfExists(this.checkpointFile);
+        super.tearDown();
+    }
+
+    @Test
+    public void testAudit() throws Exception {
+        this.sign(0, 100);
+        this.archive.put(10, "tampered");
+        this.archive.remove(20);
+
+        AuditReport report = this.audit();
+        Assert.assertEquals(Integer.valueOf(0), report.getStartId());
+        Assert.assertEquals(Integer.valueOf(100), report.getCheckpointId());
+        Assert.assertEquals(98, report.getVerified());
+        Assert.assertEquals(1, report.getFailed());
+        Assert.assertEquals(1, report.getMissing());
+        Assert.assertEquals(0, report.getErrors());
+        Assert.assertEquals(Arrays.asList(10), report.getFailedIds());
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        this.sign(0, 50);
+        Assert.assertEquals(50, this.audit().getProcessed());
+
+        AuditReport report = this.audit();
+        Assert.assertEquals(Integer.valueOf(50), report.getStartId());
+        Assert.assertEquals(0, report.getProcessed());
+
+        this.sign(50, 70);
+        report = this.audit();
+        Assert.assertEquals(20, report.getVerified());
+        Assert.assertEquals(Integer.valueOf(70), report.getCheckpointId());
+    }
+
+    private void sign(int from, int to) throws Exception {
+        for (int i = from; i < to; i++) {
+            String message = "message" + i;
+            this.archive.put(this.schnorr.sign(message), message);
+        }
+    }
+
+    private AuditReport audit() throws Exception {
+        return new AuditJob(this.schnorr, new MessageSource() {
+            @Override
+            public String getMessage(Integer recordId) {
+                return archive.get(recordId);
+            }
+        }, this.checkpointFile, 4).run();
+    }
+}
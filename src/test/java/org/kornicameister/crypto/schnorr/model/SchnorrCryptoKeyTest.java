@@ -5,6 +5,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.kornicameister.crypto.SchnorrTest;
 import org.kornicameister.crypto.schnorr.SchnorrCryptoKey;
+import org.kornicameister.crypto.schnorr.SchnorrKeyPair;
+import org.kornicameister.crypto.schnorr.SchnorrKeyRegistry;
 
 import java.math.BigInteger;
 
@@ -27,8 +29,7 @@ public class SchnorrCryptoKeyTest extends SchnorrTest {
 
         this.cryptoKey.setCryptoEPart(eFactor);
         this.cryptoKey.setCryptoYPart(xFactor);
-        this.cryptoKey.setPublicKey(pubKey);
-        this.cryptoKey.setPrivateKey(privKey);
+        this.cryptoKey.setSignerId(new SchnorrKeyRegistry(this.sqlitecontroller).addKeyPair(new SchnorrKeyPair(pubKey, privKey)));
     }
 
     @Test
@@ -0,0 +1,35 @@
+package org.kornicameister.crypto.schnorr.model;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kornicameister.crypto.SchnorrTest;
+import org.kornicameister.crypto.schnorr.SchnorrKeyPair;
+import org.kornicameister.crypto.schnorr.SchnorrKeyRegistry;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class SchnorrKeyPairTest extends SchnorrTest {
+    private BigInteger pubKey = BigInteger.TEN;
+    private BigInteger privKey = BigInteger.ONE;
+
+    @Test
+    public void testAddGet() throws Exception {
+        SchnorrKeyPair keyPair = new SchnorrKeyPair(pubKey, privKey);
+        Integer id = new SchnorrKeyRegistry(this.sqlitecontroller).addKeyPair(keyPair);
+        Assert.assertEquals(id, keyPair.getPrimaryKey());
+
+        SchnorrKeyRegistry registry = new SchnorrKeyRegistry(this.sqlitecontroller);
+        Assert.assertEquals(keyPair, registry.getKeyPair(id));
+        Assert.assertSame(registry.getKeyPair(id), registry.getKeyPair(id));
+
+        Map<Integer, SchnorrKeyPair> keyPairs = registry.getKeyPairs(Arrays.asList(id, -1));
+        Assert.assertEquals(1, keyPairs.size());
+        Assert.assertEquals(keyPair, keyPairs.get(id));
+    }
+}
@@ -0,0 +1,60 @@
+package org.kornicameister.crypto.schnorr.nonce;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class NonceSourceTest {
+
+    /**
+     * RFC 6979, A.2.1, DSA with 1024-bit p, SHA-1, message "sample"
+     */
+    @Test
+    public void testRfc6979Vector() throws Exception {
+        BigInteger q = new BigInteger("996F967F6C8E388D9E28D01E205FBA957A5698B1", 16);
+        BigInteger x = new BigInteger("411602CB19A6CCC34494D79D98EF1E7ED5AF25F7", 16);
+        byte[] digest = MessageDigest.getInstance("SHA-1").digest("sample".getBytes("US-ASCII"));
+
+        NonceSource source = new DeterministicNonceSource("HmacSHA1", new DrbgNonceSource());
+        Assert.assertTrue(source.isDeterministic());
+        Assert.assertEquals(new BigInteger("7BDB6B0FF756E1BB5D53583EF979082F9AD5BD5B", 16),
+                source.nextNonce(159, q, x, digest));
+    }
+
+    @Test
+    public void testDeterministic() throws Exception {
+        BigInteger q = BigInteger.ONE.shiftLeft(255).nextProbablePrime();
+        BigInteger x = new BigInteger("1234567890abcdef", 16);
+        MessageDigest sha512 = MessageDigest.getInstance("SHA-512");
+        byte[] first = sha512.digest("first".getBytes("US-ASCII"));
+        byte[] second = sha512.digest("second".getBytes("US-ASCII"));
+
+        NonceSource source = new DeterministicNonceSource();
+        BigInteger k = source.nextNonce(255, q, x, first);
+        Assert.assertEquals(k, new DeterministicNonceSource().nextNonce(255, q, x, first));
+        Assert.assertNotEquals(k, source.nextNonce(255, q, x, second));
+        Assert.assertTrue(k.signum() > 0 && k.compareTo(q) < 0);
+    }
+
+    @Test
+    public void testDrbg() throws Exception {
+        NonceSource source = new DrbgNonceSource();
+        Assert.assertFalse(source.isDeterministic());
+
+        Set<BigInteger> values = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            BigInteger value = source.nextRandom(159);
+            Assert.assertTrue(value.bitLength() <= 159);
+            values.add(value);
+        }
+        Assert.assertEquals(1000, values.size());
+    }
+}
@@ -0,0 +1,82 @@
+package org.kornicameister.crypto.schnorr.store;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kornicameister.crypto.schnorr.SchnorrCryptoKey;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class CachingKeyStoreTest {
+    private final Random random = new Random(7);
+    private Path file;
+    private CachingKeyStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = Files.createTempFile("schnorr", ".log");
+        Files.delete(this.file);
+        this.store = new CachingKeyStore(new MappedLogKeyStore(this.file, 65), 64);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.store.close();
+        Files.deleteIfExists(this.file);
+    }
+
+    @Test
+    public void testSavePopulates() throws Exception {
+        SchnorrCryptoKey cryptoKey = this.cryptoKey();
+        Integer id = this.store.addSchnorrKey(cryptoKey);
+
+        Assert.assertSame(cryptoKey, this.store.getSchnorrKey(id));
+        Assert.assertSame(cryptoKey, this.store.getSchnorrKey(id));
+        Assert.assertEquals(2, this.store.getHits());
+        Assert.assertEquals(0, this.store.getMisses());
+    }
+
+    @Test
+    public void testReadThrough() throws Exception {
+        Integer id = this.store.getDelegate().addSchnorrKey(this.cryptoKey());
+
+        SchnorrCryptoKey loaded = this.store.getSchnorrKey(id);
+        Assert.assertNotNull(loaded);
+        Assert.assertSame(loaded, this.store.getSchnorrKey(id));
+        Assert.assertNull(this.store.getSchnorrKey(id + 1));
+        Assert.assertEquals(1, this.store.getHits());
+        Assert.assertEquals(2, this.store.getMisses());
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        List<SchnorrCryptoKey> cryptoKeys = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            cryptoKeys.add(this.cryptoKey());
+        }
+        List<Integer> ids = this.store.addSchnorrKeys(cryptoKeys);
+
+        Assert.assertTrue(this.store.size() <= this.store.getCapacity());
+        Assert.assertEquals(cryptoKeys.size() - this.store.size(), this.store.getEvictions());
+        Assert.assertEquals(cryptoKeys.size(), this.store.getSchnorrKeys(ids).size());
+        Assert.assertEquals(cryptoKeys.get(0), this.store.getSchnorrKey(ids.get(0)));
+    }
+
+    private SchnorrCryptoKey cryptoKey() {
+        SchnorrCryptoKey cryptoKey = new SchnorrCryptoKey();
+        cryptoKey.setSignerId(1);
+        cryptoKey.setCryptoEPart(new BigInteger(512, this.random));
+        cryptoKey.setCryptoYPart(new BigInteger(256, this.random));
+        return cryptoKey;
+    }
+}
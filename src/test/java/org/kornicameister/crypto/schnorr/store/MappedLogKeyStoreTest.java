@@ -0,0 +1,136 @@
+package org.kornicameister.crypto.schnorr.store;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.kornicameister.crypto.schnorr.SchnorrCryptoKey;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class MappedLogKeyStoreTest {
+    private static final int VALUE_BYTES = 65;
+    private final Random random = new Random(42);
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = Files.createTempFile("schnorr", ".log");
+        Files.delete(this.file);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Test
+    public void testAddGet() throws Exception {
+        List<SchnorrCryptoKey> cryptoKeys = new ArrayList<>();
+        MappedLogKeyStore store = new MappedLogKeyStore(this.file, VALUE_BYTES);
+        try {
+            SchnorrCryptoKey single = this.cryptoKey(1);
+            Assert.assertEquals(Integer.valueOf(1), store.addSchnorrKey(single));
+            cryptoKeys.add(single);
+            for (int i = 0; i < 100; i++) {
+                cryptoKeys.add(this.cryptoKey(i % 3 + 1));
+            }
+            List<Integer> ids = store.addSchnorrKeys(cryptoKeys.subList(1, cryptoKeys.size()));
+            Assert.assertEquals(100, ids.size());
+            Assert.assertEquals(Integer.valueOf(2), ids.get(0));
+
+            Assert.assertEquals(single, store.getSchnorrKey(1));
+            Assert.assertNull(store.getSchnorrKey(0));
+            Assert.assertNull(store.getSchnorrKey(102));
+        } finally {
+            store.close();
+        }
+
+        store = new MappedLogKeyStore(this.file, VALUE_BYTES);
+        try {
+            Assert.assertEquals(cryptoKeys.size(), store.size());
+            Map<Integer, SchnorrCryptoKey> loaded = store.getSchnorrKeys(Arrays.asList(1, 50, 101, 500));
+            Assert.assertEquals(3, loaded.size());
+            Assert.assertEquals(cryptoKeys.get(49), loaded.get(50));
+            Assert.assertEquals(cryptoKeys.get(100), loaded.get(101));
+            Assert.assertEquals(Integer.valueOf(102), store.addSchnorrKey(this.cryptoKey(1)));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    public void testRecovery() throws Exception {
+        MappedLogKeyStore store = new MappedLogKeyStore(this.file, VALUE_BYTES);
+        for (int i = 0; i < 10; i++) {
+            store.addSchnorrKey(this.cryptoKey(1));
+        }
+        store.close();
+
+        long recordSize = 4 + 4 + 2 + VALUE_BYTES + 2 + VALUE_BYTES + 4;
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), 64 + 8 * recordSize + 20);
+        }
+
+        store = new MappedLogKeyStore(this.file, VALUE_BYTES);
+        try {
+            Assert.assertEquals(8, store.size());
+            Assert.assertNotNull(store.getSchnorrKey(8));
+            Assert.assertNull(store.getSchnorrKey(9));
+            Assert.assertEquals(Integer.valueOf(9), store.addSchnorrKey(this.cryptoKey(1)));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test(expected = SQLException.class)
+    public void testDamagedRead() throws Exception {
+        MappedLogKeyStore store = new MappedLogKeyStore(this.file, VALUE_BYTES);
+        try {
+            for (int i = 0; i < 10; i++) {
+                store.addSchnorrKey(this.cryptoKey(1));
+            }
+            long recordSize = 4 + 4 + 2 + VALUE_BYTES + 2 + VALUE_BYTES + 4;
+            try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), 64 + 4 * recordSize + 20);
+            }
+            store.getSchnorrKey(5);
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test(expected = SQLException.class)
+    public void testValueTooLarge() throws Exception {
+        MappedLogKeyStore store = new MappedLogKeyStore(this.file, 8);
+        try {
+            store.addSchnorrKey(this.cryptoKey(1));
+        } finally {
+            Assert.assertEquals(0, store.size());
+            store.close();
+        }
+    }
+
+    private SchnorrCryptoKey cryptoKey(int signerId) {
+        SchnorrCryptoKey cryptoKey = new SchnorrCryptoKey();
+        cryptoKey.setSignerId(signerId);
+        cryptoKey.setCryptoEPart(new BigInteger(512, this.random));
+        cryptoKey.setCryptoYPart(new BigInteger(256, this.random));
+        return cryptoKey;
+    }
+}
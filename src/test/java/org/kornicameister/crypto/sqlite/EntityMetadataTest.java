@@ -0,0 +1,53 @@
+package org.kornicameister.crypto.sqlite;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.kornicameister.crypto.schnorr.SchnorrCryptoKey;
+
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class EntityMetadataTest {
+
+    @Test
+    public void testQueries() throws Exception {
+        EntityMetadata entity = new EntityMetadata(SchnorrCryptoKey.class);
+
+        Assert.assertEquals("schnorr4", entity.getTable());
+        Assert.assertEquals("insert into schnorr4 ( signer_id,e_factor,y_factor ) values ( ?,?,? )",
+                entity.getInsertQuery());
+        Assert.assertEquals("insert into schnorr4 ( id,signer_id,e_factor,y_factor ) values ( ?,?,?,? )",
+                entity.getInsertWithIdQuery());
+        Assert.assertEquals("select id,signer_id,e_factor,y_factor from schnorr4 where id=?",
+                entity.getSelectQuery());
+        Assert.assertEquals("select id,signer_id,e_factor,y_factor from schnorr4 where id in (?,?)",
+                entity.getSelectInQuery(2));
+        Assert.assertEquals("select id,signer_id,e_factor,y_factor from schnorr4 where id>? order by id limit ?",
+                entity.getSelectAfterQuery());
+        Assert.assertEquals("create table if not exists schnorr4 ( id integer primary key autoincrement,"
+                + "signer_id integer,e_factor blob,y_factor blob )", entity.getCreateQuery());
+    }
+
+    @Test
+    public void testValues() throws Exception {
+        SchnorrCryptoKey cryptoKey = new SchnorrCryptoKey();
+        cryptoKey.setSignerId(7);
+        cryptoKey.setCryptoEPart(BigInteger.TEN);
+        cryptoKey.setCryptoYPart(BigInteger.ONE);
+
+        List<Object> values = new EntityMetadata(SchnorrCryptoKey.class).getValues(cryptoKey);
+        Assert.assertEquals(3, values.size());
+        Assert.assertEquals(7, values.get(0));
+        Assert.assertArrayEquals(BigInteger.TEN.toByteArray(), (byte[]) values.get(1));
+        Assert.assertArrayEquals(BigInteger.ONE.toByteArray(), (byte[]) values.get(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotAnEntity() throws Exception {
+        new EntityMetadata(String.class);
+    }
+}
@@ -1,7 +1,17 @@
 package org.kornicameister.crypto.sqlite;
 
+import org.junit.Assert;
 import org.junit.Test;
 import org.kornicameister.crypto.SchnorrTest;
+import org.kornicameister.crypto.schnorr.SchnorrKeyPair;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.assertTrue;
 
@@ -14,4 +24,38 @@ public class SQLiteControllerTest extends SchnorrTest {
     public void testIsConnected() throws Exception {
         assertTrue("Mongo is not connected", this.sqlitecontroller.isConnected());
     }
+
+    @Test
+    public void testGetMissingObject() throws Exception {
+        Assert.assertNull(this.sqlitecontroller.getObject(-1, SchnorrKeyPair.class));
+    }
+
+    @Test
+    public void testConcurrentReadWrite() throws Exception {
+        final SchnorrKeyPair keyPair = new SchnorrKeyPair(BigInteger.TEN, BigInteger.ONE);
+        final Integer id = this.sqlitecontroller.saveObject(keyPair);
+        keyPair.setPrimaryKey(id);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            final boolean write = i % 4 == 0;
+            tasks.add(new Callable<Boolean>() {
+                @Override
+                public Boolean call() throws Exception {
+                    if (write) {
+                        return sqlitecontroller.saveObject(new SchnorrKeyPair(BigInteger.ONE, BigInteger.TEN)) > id;
+                    }
+                    return keyPair.equals(sqlitecontroller.getObject(id, SchnorrKeyPair.class));
+                }
+            });
+        }
+        try {
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
 }
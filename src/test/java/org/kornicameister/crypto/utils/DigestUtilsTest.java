@@ -0,0 +1,89 @@
+package org.kornicameister.crypto.utils;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Random;
+
+/**
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class DigestUtilsTest {
+    private static final String ALGORITHM = "SHA-512";
+    private Path file;
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = Files.createTempFile("schnorr", ".msg");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Test
+    public void testSmallFile() throws Exception {
+        this.write(DigestUtils.MAP_THRESHOLD - 1);
+        this.assertDigest(0);
+        this.assertDigest(1000);
+    }
+
+    @Test
+    public void testMappedRegions() throws Exception {
+        // more than one region, last one being partial
+        this.write(DigestUtils.MAP_REGION + DigestUtils.MAP_THRESHOLD + 12345);
+        this.assertDigest(0);
+        this.assertDigest(DigestUtils.MAP_THRESHOLD + 17);
+    }
+
+    /**
+     * File is sparse, random blocks are written at its start, around the region boundary
+     * (if the file spans it) and at its end.
+     */
+    private void write(long size) throws Exception {
+        Random random = new Random(size);
+        byte[] block = new byte[64 * 1024];
+        long[] positions = {0, DigestUtils.MAP_REGION - block.length / 2, size - block.length};
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.WRITE)) {
+            for (long position : positions) {
+                if (position >= 0 && position + block.length <= size) {
+                    random.nextBytes(block);
+                    channel.write(ByteBuffer.wrap(block), position);
+                }
+            }
+        }
+        Assert.assertEquals(size, Files.size(this.file));
+    }
+
+    private void assertDigest(long position) throws Exception {
+        MessageDigest expected = MessageDigest.getInstance(ALGORITHM);
+        try (InputStream stream = new FileInputStream(this.file.toFile())) {
+            Assert.assertEquals(position, stream.skip(position));
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                expected.update(buffer, 0, read);
+            }
+        }
+
+        MessageDigest digest = MessageDigest.getInstance(ALGORITHM);
+        try (FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+            channel.position(position);
+            DigestUtils.update(digest, channel);
+            Assert.assertEquals(channel.size(), channel.position());
+        }
+        Assert.assertArrayEquals(expected.digest(), digest.digest());
+    }
+}
@@ -0,0 +1,71 @@
+package org.kornicameister.crypto.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class EllipticCurveTest {
+    private final EllipticCurve curve = EllipticCurve.P_256;
+    private final Random random = new Random(256);
+
+    @Test
+    public void testDouble() throws Exception {
+        BigInteger[] twice = this.curve.toAffine(this.curve.twice(this.curve.getGenerator()));
+        Assert.assertEquals(new BigInteger("7cf27b188d034f7e8a52380304b51ac3c08969e277f21b35a60b48fc47669978", 16),
+                twice[0]);
+        Assert.assertEquals(new BigInteger("07775510db8ed040293d9ac69f7430dbba7dade63ce982299e04b79d227873d1", 16),
+                twice[1]);
+        Assert.assertEquals(this.curve.encode(this.curve.add(this.curve.getGenerator(), this.curve.getGenerator())),
+                this.curve.encode(this.curve.twice(this.curve.getGenerator())));
+    }
+
+    @Test
+    public void testOrder() throws Exception {
+        EllipticCurve.Point generator = this.curve.getGenerator();
+        Assert.assertTrue(this.curve.isInfinity(this.curve.multiply(generator, this.curve.getN())));
+        Assert.assertTrue(this.curve.isInfinity(this.curve.add(generator, this.curve.negate(generator))));
+        Assert.assertEquals(this.curve.encode(generator),
+                this.curve.encode(this.curve.add(generator, this.curve.getInfinity())));
+    }
+
+    @Test
+    public void testMultiply() throws Exception {
+        EllipticCurve.Point generator = this.curve.getGenerator();
+        EcFixedBaseTable table = new EcFixedBaseTable(this.curve, generator, 256, 6);
+        for (int i = 0; i < 8; i++) {
+            BigInteger k = new BigInteger(256, this.random);
+            BigInteger l = new BigInteger(256, this.random);
+            BigInteger expected = this.curve.encode(this.curve.multiply(generator, k.add(l)));
+
+            Assert.assertEquals(expected, this.curve.encode(
+                    this.curve.add(this.curve.multiply(generator, k), this.curve.multiply(generator, l))));
+            Assert.assertEquals(expected, this.curve.encode(
+                    this.curve.addAffine(table.multiply(k), this.curve.normalize(table.multiply(l)))));
+            Assert.assertEquals(expected, table.pow(k.add(l)));
+        }
+    }
+
+    @Test
+    public void testEncodeDecode() throws Exception {
+        for (int i = 0; i < 8; i++) {
+            EllipticCurve.Point point = this.curve.multiply(this.curve.getGenerator(), new BigInteger(256, this.random));
+            BigInteger encoded = this.curve.encode(point);
+            BigInteger[] affine = this.curve.toAffine(this.curve.decode(encoded));
+            Assert.assertTrue(this.curve.isOnCurve(affine[0], affine[1]));
+            Assert.assertEquals(encoded, this.curve.encode(this.curve.decode(encoded)));
+        }
+        Assert.assertEquals(BigInteger.ZERO, this.curve.encode(this.curve.getInfinity()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeNotOnCurve() throws Exception {
+        // x = 1 gives y^2 = b - 2, which is not a square modulo P-256 prime
+        this.curve.decode(BigInteger.valueOf(2).shiftLeft(256).or(BigInteger.ONE));
+    }
+}
@@ -0,0 +1,75 @@
+package org.kornicameister.crypto.utils;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Random;
+
+/**
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class FixedBaseCacheTest {
+    private static final int EXPONENT_BITS = 160;
+    private static final int WINDOW = 4;
+    private Random random;
+    private MontgomeryContext context;
+    private long tableFootprint;
+
+    @Before
+    public void setUp() throws Exception {
+        this.random = new SecureRandom();
+        this.context = new MontgomeryContext(BigInteger.probablePrime(512, this.random));
+        this.tableFootprint = FixedBaseTable.estimateMemoryFootprint(512, EXPONENT_BITS, WINDOW);
+    }
+
+    @Test
+    public void testHotThreshold() throws Exception {
+        FixedBaseCache cache = new FixedBaseCache(this.context, EXPONENT_BITS, WINDOW, this.tableFootprint * 4, 2);
+        BigInteger base = new BigInteger(511, this.random);
+
+        Assert.assertNull("Cold base got the table", cache.get(base));
+        FixedBaseTable table = cache.get(base);
+        Assert.assertNotNull("Hot base got no table", table);
+        Assert.assertSame("Table was not cached", table, cache.get(base));
+
+        BigInteger exponent = new BigInteger(EXPONENT_BITS, this.random);
+        Assert.assertEquals(base.modPow(exponent, this.context.getModulus()), table.pow(exponent));
+        Assert.assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testMemoryCapEviction() throws Exception {
+        FixedBaseCache cache = new FixedBaseCache(this.context, EXPONENT_BITS, WINDOW, this.tableFootprint * 2, 1);
+        BigInteger first = new BigInteger(511, this.random);
+        BigInteger second = new BigInteger(511, this.random);
+        BigInteger third = new BigInteger(511, this.random);
+
+        cache.get(first);
+        cache.get(second);
+        cache.get(first);
+        cache.get(third);
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertTrue(cache.getMemoryUsed() <= cache.getMemoryCap());
+        long hits = cache.getHits();
+        cache.get(first);
+        Assert.assertEquals("Recently used table was evicted", hits + 1, cache.getHits());
+    }
+
+    @Test
+    public void testTableOverMemoryCap() throws Exception {
+        FixedBaseCache cache = new FixedBaseCache(this.context, EXPONENT_BITS, WINDOW, this.tableFootprint - 1, 1);
+        BigInteger base = new BigInteger(511, this.random);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertNull("Table over memory cap was built", cache.get(base));
+        }
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getMemoryUsed());
+    }
+}
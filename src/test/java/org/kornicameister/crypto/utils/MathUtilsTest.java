@@ -5,6 +5,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Random;
 
 /**
  * @author kornicameister
@@ -45,4 +47,96 @@ public class MathUtilsTest {
                         org.kornicameister.crypto.utils.MathUtils.Method.MONTGOMERY)
         );
     }
+
+    @Test
+    public void testFixedBaseTable() throws Exception {
+        Random random = new SecureRandom();
+        BigInteger modulus = BigInteger.probablePrime(512, random);
+        BigInteger base = new BigInteger(511, random);
+        FixedBaseTable table = new FixedBaseTable(base, modulus, 160, 5);
+
+        for (int i = 0; i < 32; i++) {
+            BigInteger exponent = new BigInteger(160, random);
+            Assert.assertEquals("Fixed base power not equals",
+                    base.modPow(exponent, modulus),
+                    table.pow(exponent));
+        }
+        Assert.assertEquals("Zero exponent", BigInteger.ONE, table.pow(BigInteger.ZERO));
+
+        BigInteger longExponent = new BigInteger(300, random);
+        Assert.assertEquals("Exponent longer than the table",
+                base.modPow(longExponent, modulus),
+                table.pow(longExponent));
+    }
+
+    @Test
+    public void testPowModDual() throws Exception {
+        Random random = new SecureRandom();
+        BigInteger modulus = BigInteger.probablePrime(512, random);
+
+        for (int bits = 1; bits <= 600; bits += 37) {
+            BigInteger a = new BigInteger(511, random);
+            BigInteger b = new BigInteger(511, random);
+            BigInteger x = new BigInteger(bits, random);
+            BigInteger y = new BigInteger(bits / 2 + 1, random);
+            Assert.assertEquals("Simultaneous exponentiation not equals",
+                    a.modPow(x, modulus).multiply(b.modPow(y, modulus)).mod(modulus),
+                    MathUtils.powModDual(a, x, b, y, modulus));
+        }
+    }
+
+    @Test
+    public void testPowModMethods() throws Exception {
+        Random random = new SecureRandom();
+        BigInteger modulus = BigInteger.probablePrime(1024, random);
+
+        for (int bits = 1; bits <= 1100; bits += 73) {
+            BigInteger base = new BigInteger(1023, random);
+            BigInteger exponent = new BigInteger(bits, random);
+            for (MathUtils.Method method : MathUtils.Method.values()) {
+                Assert.assertEquals(String.format("%s power not equals", method),
+                        base.modPow(exponent, modulus),
+                        MathUtils.powMod(base, exponent, modulus, method));
+            }
+        }
+        Assert.assertEquals("Negative exponent not equals",
+                BigInteger.TEN.modPow(BigInteger.valueOf(-7), modulus),
+                MathUtils.powMod(BigInteger.TEN, BigInteger.valueOf(-7), modulus));
+    }
+
+    @Test
+    public void testMontgomeryContext() throws Exception {
+        Random random = new SecureRandom();
+        BigInteger modulus = BigInteger.probablePrime(2048, random);
+        MontgomeryContext context = new MontgomeryContext(modulus);
+
+        BigInteger a = new BigInteger(2047, random);
+        BigInteger b = new BigInteger(2047, random);
+        Assert.assertEquals("Conversion not equals", a, context.fromMontgomery(context.toMontgomery(a)));
+
+        int[] product = new int[context.getLength()];
+        context.multiply(context.toMontgomery(a), context.toMontgomery(b), product, new int[context.getLength() + 2]);
+        Assert.assertEquals("Montgomery multiplication not equals",
+                a.multiply(b).mod(modulus),
+                context.fromMontgomery(product));
+    }
+
+    @Test
+    public void testMontgomeryWorkspaceReuse() throws Exception {
+        Random random = new SecureRandom();
+        BigInteger modulus = BigInteger.probablePrime(1024, random);
+        MontgomeryContext context = MontgomeryContext.forModulus(modulus);
+        Assert.assertSame("Context not shared", context, MontgomeryContext.forModulus(modulus));
+
+        // consecutive calls share the workspace, neither may see the leftovers of the previous one
+        for (int i = 0; i < 16; i++) {
+            BigInteger a = new BigInteger(1100, random).subtract(BigInteger.ONE.shiftLeft(1099));
+            BigInteger x = new BigInteger(16 * (i + 1), random);
+            BigInteger y = new BigInteger(160, random);
+            Assert.assertEquals("Power not equals", a.modPow(x, modulus), context.pow(a, x));
+            Assert.assertEquals("Dual power not equals",
+                    a.modPow(x, modulus).multiply(a.modPow(y, modulus)).mod(modulus),
+                    context.powDual(a, x, a, y));
+        }
+    }
 }
@@ -0,0 +1,50 @@
+package org.kornicameister.crypto.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Random;
+
+/**
+ * @author kornicameister
+ * @since 0.0.2
+ */
+public class PrimeSieveTest {
+    private static final int LENGTH = 2048;
+    private static final BigInteger SMALL_FACTORS = BigInteger.valueOf(3L * 5 * 7 * 11 * 13 * 17 * 19 * 23 * 29 * 31 * 37);
+
+    @Test
+    public void testSieveProgression() throws Exception {
+        Random random = new SecureRandom();
+        BigInteger q2 = BigInteger.probablePrime(160, random).shiftLeft(1);
+        BigInteger start = new BigInteger(512, random);
+        start = start.subtract(start.mod(q2)).add(BigInteger.ONE);
+
+        this.assertSieve(new PrimeSieve(start, q2, LENGTH), start, q2);
+    }
+
+    @Test
+    public void testSieveOddNumbers() throws Exception {
+        BigInteger start = new BigInteger(224, new SecureRandom()).setBit(0);
+
+        this.assertSieve(new PrimeSieve(start, MathUtils.INTEGER_2, LENGTH), start, MathUtils.INTEGER_2);
+    }
+
+    private void assertSieve(PrimeSieve sieve, BigInteger start, BigInteger step) {
+        for (int k = 0; k < LENGTH; k++) {
+            BigInteger candidate = start.add(step.multiply(BigInteger.valueOf(k)));
+            boolean survived = sieve.nextCandidate(k) == k;
+
+            Assert.assertEquals(candidate, sieve.candidate(k));
+            if (candidate.isProbablePrime(20)) {
+                Assert.assertTrue("Prime has been sieved out", survived);
+            }
+            if (survived) {
+                Assert.assertEquals("Survivor has small factor", BigInteger.ONE, candidate.gcd(SMALL_FACTORS));
+            }
+        }
+        Assert.assertTrue(sieve.survivors() < LENGTH / 4);
+    }
+}